@@ -0,0 +1,49 @@
+package com.github.agadar.javacommander;
+
+import com.github.agadar.javacommander.exception.CommandInvocationException;
+
+/**
+ * A command along with the arguments parsed for it, ready to be invoked. Lets
+ * commands be resolved and their arguments be parsed on one thread, and be
+ * invoked on another.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+final class BoundCommand {
+
+    final JcCommand command;
+    final Object[] args;
+
+    /**
+     * Constructor.
+     *
+     * @param command The command.
+     * @param args    The arguments parsed for the command.
+     */
+    BoundCommand(JcCommand command, Object[] args) {
+        this.command = command;
+        this.args = args;
+    }
+
+    /**
+     * Returns the argument parsed for the command's partition key option.
+     *
+     * @return The partition key, which may be null.
+     * @see JcCommandMetadata#hasPartitionKey()
+     */
+    Object getPartitionKey() {
+        return args[command.getMetadata().partitionKeyIndex];
+    }
+
+    /**
+     * Invokes the command in the context with the parsed arguments.
+     *
+     * @param context The context to invoke the command in.
+     * @return The value returned by the command's method, or null if it returns
+     *         nothing.
+     * @throws CommandInvocationException If invoking the command failed.
+     */
+    Object invoke(ExecutionContext context) throws CommandInvocationException {
+        return command.invoke(context, args);
+    }
+}
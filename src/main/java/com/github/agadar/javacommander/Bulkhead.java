@@ -0,0 +1,155 @@
+package com.github.agadar.javacommander;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.agadar.javacommander.annotation.QueueFullPolicy;
+import com.github.agadar.javacommander.exception.CommandInvocationException;
+import com.github.agadar.javacommander.exception.CommandRejectedException;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Limits how many invocations of a command run at once, and how many more may
+ * wait for their turn, so that one slow command cannot occupy every thread.
+ * Waiting invocations are let through in the order they arrived in. An
+ * invocation that finds the queue full is rejected or waits for room, depending
+ * on the policy.
+ * <p>
+ * The numbers of running, waiting and rejected invocations are kept, so that
+ * the bulkhead's occupancy can be monitored.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public final class Bulkhead {
+
+    /**
+     * The maximum number of invocations running at once.
+     */
+    @Getter
+    private final int maxConcurrency;
+
+    /**
+     * The maximum number of invocations waiting for a running one to finish.
+     */
+    @Getter
+    private final int queueCapacity;
+
+    /**
+     * What happens to an invocation that finds the queue full.
+     */
+    @Getter
+    private final QueueFullPolicy queueFullPolicy;
+
+    /**
+     * One permit for each invocation that may run.
+     */
+    private final Semaphore running;
+
+    /**
+     * One permit for each invocation that may run or wait.
+     */
+    private final Semaphore admitted;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param maxConcurrency  The maximum number of invocations running at once.
+     * @param queueCapacity   The maximum number of invocations waiting for a
+     *                        running one to finish.
+     * @param queueFullPolicy What happens to an invocation that finds the queue
+     *                        full.
+     * @throws IllegalArgumentException If the maximum concurrency is not positive,
+     *                                  or if the queue capacity is negative.
+     */
+    public Bulkhead(int maxConcurrency, int queueCapacity, @NonNull QueueFullPolicy queueFullPolicy)
+            throws IllegalArgumentException {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("'maxConcurrency' should be positive");
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("'queueCapacity' should not be negative");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.queueFullPolicy = queueFullPolicy;
+        this.running = new Semaphore(maxConcurrency, true);
+        this.admitted = new Semaphore((int) Math.min((long) maxConcurrency + queueCapacity, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Returns the number of invocations currently running.
+     *
+     * @return The number of running invocations.
+     */
+    public int getRunning() {
+        return maxConcurrency - running.availablePermits();
+    }
+
+    /**
+     * Returns the number of invocations currently waiting for a running one to
+     * finish.
+     *
+     * @return The number of waiting invocations.
+     */
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    /**
+     * Returns the number of invocations rejected so far.
+     *
+     * @return The number of rejected invocations.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Waits until the command may run. Each call that returns normally should be
+     * followed by a call to {@link #release()} once the invocation finished.
+     *
+     * @param command The command to be invoked.
+     * @throws CommandRejectedException   If the queue is full and the policy is to
+     *                                    reject.
+     * @throws CommandInvocationException If the thread was interrupted while
+     *                                    waiting.
+     */
+    void acquire(JcCommand command) throws CommandInvocationException {
+        try {
+            if (!admitted.tryAcquire()) {
+                if (queueFullPolicy == QueueFullPolicy.REJECT) {
+                    rejected.increment();
+                    throw new CommandRejectedException(command);
+                }
+                admitted.acquire();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CommandInvocationException(command, ex);
+        }
+        waiting.incrementAndGet();
+        try {
+            running.acquire();
+        } catch (InterruptedException ex) {
+            admitted.release();
+            Thread.currentThread().interrupt();
+            throw new CommandInvocationException(command, ex);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Lets the next invocation run, after an invocation finished.
+     */
+    void release() {
+        running.release();
+        admitted.release();
+    }
+}
@@ -0,0 +1,185 @@
+package com.github.agadar.javacommander;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import lombok.NonNull;
+
+/**
+ * A buffer that commands write their output to instead of System.out. A command
+ * receives it by declaring a parameter of this type, which is not an option and
+ * needs no annotation. The buffer is supplied per execution through
+ * {@link ExecutionContext#withOutput(CommandOutput)}, so that commands executed
+ * at the same time never contend for one lock or interleave their output, and
+ * the caller can hand the output to e.g. a network connection once the command
+ * finishes. If the context supplies no buffer, each command writes to a buffer
+ * of its own that is printed to System.out in one go after the command returns.
+ * <p>
+ * A buffer can forward its output to a sink, such as a Writer to a network
+ * connection, whenever it is flushed, so that output need not be held in memory
+ * until the command finishes. A buffer without a sink keeps all output until it
+ * is cleared.
+ * <p>
+ * A buffer can be reused by clearing it, which keeps its capacity. It is not
+ * thread-safe.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public final class CommandOutput implements Appendable, CharSequence {
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private final StringBuilder buffer;
+
+    /**
+     * The destination the output is forwarded to when flushed, or null if the
+     * output is kept.
+     */
+    private final Appendable sink;
+
+    public CommandOutput() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param initialCapacity The number of characters the buffer can hold before
+     *                        it has to grow.
+     */
+    public CommandOutput(int initialCapacity) {
+        this.buffer = new StringBuilder(initialCapacity);
+        this.sink = null;
+    }
+
+    /**
+     * Constructor, for a buffer that forwards its output to the sink whenever it
+     * is flushed.
+     *
+     * @param sink The destination, such as a Writer or PrintStream.
+     */
+    public CommandOutput(@NonNull Appendable sink) {
+        this.buffer = new StringBuilder(DEFAULT_CAPACITY);
+        this.sink = sink;
+    }
+
+    /**
+     * Returns whether this buffer forwards its output to a sink when flushed.
+     *
+     * @return Whether this buffer has a sink.
+     */
+    public boolean hasSink() {
+        return sink != null;
+    }
+
+    /**
+     * Appends all output to the sink and flushes the sink if it can be, and then
+     * removes the output from this buffer. Does nothing if this buffer has no
+     * sink.
+     *
+     * @throws UncheckedIOException If the sink failed.
+     */
+    public void flush() throws UncheckedIOException {
+        if (sink == null) {
+            return;
+        }
+        try {
+            sink.append(buffer);
+            if (sink instanceof Flushable) {
+                ((Flushable) sink).flush();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        buffer.setLength(0);
+    }
+
+    @Override
+    public CommandOutput append(CharSequence csq) {
+        buffer.append(csq);
+        return this;
+    }
+
+    @Override
+    public CommandOutput append(CharSequence csq, int start, int end) {
+        buffer.append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public CommandOutput append(char c) {
+        buffer.append(c);
+        return this;
+    }
+
+    /**
+     * Appends the string representation of the object.
+     *
+     * @param object The object to append.
+     * @return This.
+     */
+    public CommandOutput print(Object object) {
+        buffer.append(object);
+        return this;
+    }
+
+    /**
+     * Appends the string representation of the object, followed by a line
+     * separator.
+     *
+     * @param object The object to append.
+     * @return This.
+     */
+    public CommandOutput println(Object object) {
+        buffer.append(object).append(System.lineSeparator());
+        return this;
+    }
+
+    /**
+     * Appends a line separator.
+     *
+     * @return This.
+     */
+    public CommandOutput println() {
+        buffer.append(System.lineSeparator());
+        return this;
+    }
+
+    /**
+     * Removes all output, while keeping the capacity for reuse.
+     */
+    public void clear() {
+        buffer.setLength(0);
+    }
+
+    /**
+     * Appends all output to the destination.
+     *
+     * @param destination The destination, such as a Writer or PrintStream.
+     * @throws IOException If the destination failed.
+     */
+    public void writeTo(@NonNull Appendable destination) throws IOException {
+        destination.append(buffer);
+    }
+
+    @Override
+    public int length() {
+        return buffer.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return buffer.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return buffer.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,378 @@
+package com.github.agadar.javacommander;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+import com.github.agadar.javacommander.exception.UnknownCommandException;
+import com.github.agadar.javacommander.misc.RadixTree;
+
+/**
+ * The names of registered commands, arranged as a dispatch tree of
+ * sub-commands. Each level has its own index of the names at that level, so
+ * finding a command costs as much as its depth, no matter how many commands
+ * there are in total. A command with parents {"remote"} and name "add" is found
+ * by first looking up "remote" at the top level, and then "add" among the
+ * sub-commands of "remote".
+ * <p>
+ * If the tree ignores case, each level's index folds names once when they are
+ * added, and compares the tokens that are looked up one character at a time.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+final class CommandTree {
+
+    /**
+     * The root node, whose sub-commands are the top-level commands. It never
+     * holds a command itself.
+     */
+    private final Node root = new Node();
+
+    /**
+     * Whether names are matched ignoring case.
+     */
+    private final boolean ignoreCase;
+
+    /**
+     * Constructor.
+     *
+     * @param ignoreCase Whether names are matched ignoring case.
+     */
+    CommandTree(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * Adds the command under its parents, creating nodes for parents that are not
+     * commands themselves as needed. The command takes over names at its level
+     * that belonged to other commands. If a name it takes over was the last name of
+     * a node with sub-commands, it takes over those sub-commands as well, except
+     * for the names it has sub-commands of its own for, so that they are still
+     * found by their full names.
+     *
+     * @param command The command to add.
+     */
+    void add(JcCommand command) {
+        var level = root;
+
+        for (String parent : command.getParents()) {
+            var parentNode = subCommandsOf(level).get(parent);
+            if (parentNode == null) {
+                parentNode = new Node();
+                parentNode.names.add(parent);
+                subCommandsOf(level).put(parent, parentNode);
+            }
+            level = parentNode;
+        }
+        var index = subCommandsOf(level);
+        var node = index.get(command.getPrimaryName());
+
+        // Reuse a node without a command, so that its sub-commands are kept.
+        if (node == null || node.command != null) {
+            node = new Node();
+        }
+        node.command = command;
+
+        for (String name : command.getNames()) {
+            var previousNode = index.put(name, node);
+            if (previousNode != node) {
+                node.names.add(name);
+                if (previousNode != null) {
+                    previousNode.names.remove(name);
+                    if (previousNode.names.isEmpty()) {
+                        adoptSubCommands(node, previousNode);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the command, along with any nodes that are left without command and
+     * sub-commands. Names that were since taken over by other commands are left
+     * alone.
+     *
+     * @param command The command to remove.
+     */
+    void remove(JcCommand command) {
+        var path = new ArrayList<Node>(command.getParents().size() + 1);
+        var level = root;
+        path.add(level);
+
+        for (String parent : command.getParents()) {
+            level = level.subCommands == null ? null : level.subCommands.get(parent);
+            if (level == null) {
+                return;
+            }
+            path.add(level);
+        }
+        if (level.subCommands == null) {
+            return;
+        }
+        for (String name : command.getNames()) {
+            var node = level.subCommands.get(name);
+
+            if (node != null && node.command == command) {
+                node.command = null;
+                pruneIfEmpty(level, node);
+
+                for (int i = path.size() - 1; i > 0 && path.get(i).isEmpty(); i--) {
+                    pruneIfEmpty(path.get(i - 1), path.get(i));
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the command with the exact full name, i.e. the names of its parents
+     * and its own name separated by spaces.
+     *
+     * @param fullName The full name of the command.
+     * @return The command, or null if there is none.
+     */
+    JcCommand get(String fullName) {
+        if (fullName.indexOf(' ') < 0) {
+            var node = subCommandsOf(root).get(fullName);
+            return node == null ? null : node.command;
+        }
+        var node = root;
+        for (String name : fullName.split(" ")) {
+            if (name.isEmpty()) {
+                continue;
+            }
+            node = node.subCommands == null ? null : node.subCommands.get(name);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node.command;
+    }
+
+    /**
+     * Finds the command that the argument tokens start with, descending into
+     * sub-commands as long as the next token names one. Only the first token may be
+     * a unique abbreviation of a name; sub-command names must be given in full, so
+     * that an argument to a command is not mistaken for one of its sub-commands.
+     * If the tokens name a node that only groups sub-commands, the closest command
+     * above it is found instead.
+     *
+     * @param argumentTokens The argument tokens.
+     * @return The command, or null if none was found.
+     */
+    JcCommand resolve(List<String> argumentTokens) {
+        JcCommand found = null;
+        var index = root.subCommands;
+
+        for (int i = 0; i < argumentTokens.size() && index != null; i++) {
+            var node = find(index, argumentTokens.get(i), i == 0);
+            if (node == null) {
+                break;
+            }
+            if (node.command != null) {
+                found = node.command;
+            }
+            index = node.subCommands;
+        }
+        return found;
+    }
+
+    /**
+     * Creates the exception for argument tokens that {@link #resolve(List)} found
+     * no command for, naming the tokens up to where resolving failed and
+     * suggesting the closest names at that level.
+     *
+     * @param argumentTokens The argument tokens.
+     * @param maxSuggestions The maximum number of suggestions.
+     * @return The exception.
+     */
+    UnknownCommandException unknownCommand(List<String> argumentTokens, int maxSuggestions) {
+        var path = new StringBuilder();
+        var level = root;
+
+        for (int i = 0; i < argumentTokens.size(); i++) {
+            var token = argumentTokens.get(i);
+            var node = level.subCommands == null ? null : find(level.subCommands, token, i == 0);
+
+            if (node == null) {
+                var suggestions = new ArrayList<String>();
+                if (level.subCommands != null) {
+                    for (String name : closestNames(level.subCommands, token, maxSuggestions)) {
+                        suggestions.add(path + name);
+                    }
+                }
+                return new UnknownCommandException(path + token, suggestions);
+            }
+            path.append(node.command != null ? node.command.getPrimaryName() : node.names.get(0)).append(' ');
+            level = node;
+        }
+
+        // All tokens named a level without a command, so suggest its sub-commands.
+        var suggestions = new ArrayList<String>();
+        if (level.subCommands != null) {
+            level.subCommands.forEach((name, node) -> {
+                if (suggestions.size() < maxSuggestions) {
+                    suggestions.add(path + node.displayName(name));
+                }
+            });
+        }
+        return new UnknownCommandException(path.toString().trim(), suggestions);
+    }
+
+    /**
+     * Performs the action for each top-level command name starting with the
+     * prefix, in alphabetical order. If the tree ignores case, the names are handed
+     * to the action folded to lower case.
+     *
+     * @param prefix The prefix of the command names to visit.
+     * @param action The action to perform for each command name and its command.
+     */
+    void forEachWithPrefix(String prefix, BiConsumer<? super CharSequence, ? super JcCommand> action) {
+        subCommandsOf(root).forEachWithPrefix(prefix, (name, node) -> {
+            if (node.command != null) {
+                action.accept(name, node.command);
+            }
+        });
+    }
+
+    /**
+     * Finds the top-level names closest to the given unknown name, as they were
+     * registered.
+     *
+     * @param name           The unknown name.
+     * @param maxSuggestions The maximum number of names to return.
+     * @return The closest names, closest first.
+     */
+    List<String> closestNames(String name, int maxSuggestions) {
+        return closestNames(subCommandsOf(root), name, maxSuggestions);
+    }
+
+    /**
+     * Replaces each command by its compacted copy, and the names of each node and
+     * the labels of each level's index by shared instances.
+     *
+     * @param compactor         The compactor providing shared names.
+     * @param compactedCommands Returns the compacted copy of a command.
+     */
+    void compact(Compactor compactor, UnaryOperator<JcCommand> compactedCommands) {
+        compact(root, compactor, compactedCommands);
+    }
+
+    private static void compact(Node node, Compactor compactor, UnaryOperator<JcCommand> compactedCommands) {
+        if (node.command != null) {
+            node.command = compactedCommands.apply(node.command);
+        }
+        node.names = compactor.strings(node.names);
+
+        if (node.subCommands != null) {
+            node.subCommands.internLabels(compactor::string);
+            node.subCommands.forEach((name, subCommand) -> compact(subCommand, compactor, compactedCommands));
+        }
+    }
+
+    /**
+     * Moves the sub-commands of the previous node, which is no longer known by any
+     * name, to the node, unless the node already has a sub-command by the same
+     * name.
+     */
+    private void adoptSubCommands(Node node, Node previousNode) {
+        if (previousNode.subCommands == null || previousNode.subCommands.isEmpty()) {
+            return;
+        }
+        var subCommands = subCommandsOf(node);
+        previousNode.subCommands.forEach((name, subCommand) -> {
+            var displayName = subCommand.displayName(name);
+            if (subCommands.get(displayName) == null) {
+                subCommands.put(displayName, subCommand);
+            }
+        });
+        previousNode.subCommands = null;
+    }
+
+    private RadixTree<Node> subCommandsOf(Node node) {
+        if (node.subCommands == null) {
+            node.subCommands = new RadixTree<>(ignoreCase);
+        }
+        return node.subCommands;
+    }
+
+    /**
+     * Finds the closest names, suggesting only the closest of the names of each
+     * node, so that a command with several synonyms takes up one suggestion.
+     */
+    private static List<String> closestNames(RadixTree<Node> index, String name, int maxSuggestions) {
+        // Keys are limited after removing the synonyms, so all are needed here.
+        var closestKeys = index.closestKeys(name, RadixTree.typoTolerance(name.length()), index.size());
+        Set<Node> suggestedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        var closestNames = new ArrayList<String>(Math.min(maxSuggestions, closestKeys.size()));
+
+        for (int i = 0; i < closestKeys.size() && closestNames.size() < maxSuggestions; i++) {
+            var key = closestKeys.get(i);
+            var node = index.get(key);
+            if (suggestedNodes.add(node)) {
+                // Suggest names as they were registered rather than folded.
+                closestNames.add(index.isIgnoreCase() ? node.displayName(key) : key);
+            }
+        }
+        return closestNames;
+    }
+
+    private static Node find(RadixTree<Node> index, String token, boolean abbreviated) {
+        return abbreviated ? index.getByUniquePrefix(token) : index.get(token);
+    }
+
+    private static void pruneIfEmpty(Node level, Node node) {
+        if (!node.isEmpty()) {
+            return;
+        }
+        for (String name : node.names) {
+            if (level.subCommands.get(name) == node) {
+                level.subCommands.remove(name);
+            }
+        }
+    }
+
+    /**
+     * A node in the tree: a command, the names it is known by at its level, and
+     * its sub-commands.
+     */
+    private static final class Node {
+
+        /**
+         * The command of this node, or null if this node only groups sub-commands.
+         */
+        private JcCommand command;
+
+        /**
+         * The names this node is known by in its parent's index. Immutable once the
+         * tree is compacted.
+         */
+        private List<String> names = new ArrayList<>(1);
+
+        /**
+         * The sub-commands of this node, or null if it never had any.
+         */
+        private RadixTree<Node> subCommands;
+
+        /**
+         * Returns the name this node was registered with that the (possibly folded)
+         * key stands for.
+         */
+        private String displayName(CharSequence key) {
+            for (String name : names) {
+                if (name.contentEquals(key) || name.equalsIgnoreCase(key.toString())) {
+                    return name;
+                }
+            }
+            return key.toString();
+        }
+
+        private boolean isEmpty() {
+            return command == null && (subCommands == null || subCommands.isEmpty());
+        }
+    }
+}
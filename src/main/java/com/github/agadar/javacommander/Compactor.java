@@ -0,0 +1,196 @@
+package com.github.agadar.javacommander;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.agadar.javacommander.misc.RadixTree;
+
+/**
+ * Rebuilds commands in their most compact, read-only form when a registry is
+ * frozen. Equal strings, equal immutable values and equal lists of names are
+ * replaced by a single shared instance, lists are replaced by immutable lists of
+ * the exact size, and metadata and options that were shared before are still
+ * shared after. Options that are equal in every respect are shared as well, as
+ * are the option name indexes of commands with the same options.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+final class Compactor {
+
+    /**
+     * The shared instance of each string, immutable value and list of names.
+     */
+    private final Map<Object, Object> sharedInstances = new HashMap<>();
+    private final Map<JcCommandMetadata, JcCommandMetadata> compactedMetadata = new IdentityHashMap<>();
+    private final Map<JcCommandOption<?>, JcCommandOption<?>> compactedOptions = new IdentityHashMap<>();
+
+    /**
+     * The shared instance of each option, keyed by all of the option's fields.
+     */
+    private final Map<List<Object>, JcCommandOption<?>> sharedOptions = new HashMap<>();
+
+    /**
+     * The shared option name index of each list of compacted options.
+     */
+    private final Map<OptionsKey, RadixTree<JcCommandOption<?>>> sharedOptionIndexes = new HashMap<>();
+
+    /**
+     * Returns the shared instance of the string.
+     *
+     * @param string The string.
+     * @return The shared instance equal to the string.
+     */
+    String string(String string) {
+        return string == null ? null : (String) sharedInstances.computeIfAbsent(string, key -> key);
+    }
+
+    /**
+     * Returns the shared, immutable list equal to the list of strings, whose
+     * strings are shared instances themselves.
+     *
+     * @param strings The list of strings.
+     * @return The shared list.
+     */
+    @SuppressWarnings("unchecked")
+    List<String> strings(List<String> strings) {
+        var shared = (List<String>) sharedInstances.get(strings);
+        if (shared == null) {
+            var compacted = new String[strings.size()];
+            for (int i = 0; i < compacted.length; i++) {
+                compacted[i] = string(strings.get(i));
+            }
+            shared = List.of(compacted);
+            sharedInstances.put(shared, shared);
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the shared instance of the value if it is of an immutable type whose
+     * equal instances are interchangeable, or else the value itself.
+     *
+     * @param value The value.
+     * @return The shared instance equal to the value, or the value itself.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T value(T value) {
+        return isShareable(value) ? (T) sharedInstances.computeIfAbsent(value, key -> key) : value;
+    }
+
+    /**
+     * Returns the compacted copy of the command.
+     *
+     * @param command The command.
+     * @return The compacted copy, invoking its method on the same object.
+     */
+    JcCommand command(JcCommand command) {
+        return new JcCommand(metadata(command.getMetadata()), command.getObjectToInvokeOn());
+    }
+
+    /**
+     * Returns the compacted copy of the metadata, the same one for each call with
+     * the same metadata.
+     *
+     * @param metadata The metadata.
+     * @return The compacted copy.
+     */
+    JcCommandMetadata metadata(JcCommandMetadata metadata) {
+        var compacted = compactedMetadata.get(metadata);
+        if (compacted == null) {
+            compacted = new JcCommandMetadata(metadata, this);
+            compactedMetadata.put(metadata, compacted);
+        }
+        return compacted;
+    }
+
+    /**
+     * Returns the compacted copy of the option, the same one for each call with
+     * the same option.
+     *
+     * @param option The option.
+     * @return The compacted copy.
+     */
+    JcCommandOption<?> option(JcCommandOption<?> option) {
+        var compacted = compactedOptions.get(option);
+        if (compacted == null) {
+            compacted = new JcCommandOption<>(option, this);
+
+            // Options whose values may be mutable are not shared between commands.
+            if (isShareable(compacted.getDefaultValue()) && isShareable(compacted.getFlagValue())) {
+                var sharedOption = sharedOptions.putIfAbsent(compacted.getFields(), compacted);
+                compacted = sharedOption == null ? compacted : sharedOption;
+            }
+            compactedOptions.put(option, compacted);
+        }
+        return compacted;
+    }
+
+    /**
+     * Returns the shared option name index for the compacted options, building it
+     * if no command with the same options was compacted before.
+     *
+     * @param options    The compacted options.
+     * @param ignoreCase Whether option names are matched ignoring case.
+     * @return The shared index, mapping each option name to its option.
+     */
+    RadixTree<JcCommandOption<?>> optionIndex(List<JcCommandOption<?>> options, boolean ignoreCase) {
+        return sharedOptionIndexes.computeIfAbsent(new OptionsKey(options, ignoreCase), key -> {
+            var index = new RadixTree<JcCommandOption<?>>(ignoreCase);
+            for (var option : options) {
+                for (String name : option.getNames()) {
+                    index.put(name, option);
+                }
+            }
+            index.internLabels(this::string);
+            return index;
+        });
+    }
+
+    private static boolean isShareable(Object value) {
+        return value == null || value instanceof String || value instanceof Boolean || value instanceof Character
+                || value instanceof Number && value.getClass().getName().startsWith("java.lang.");
+    }
+
+    /**
+     * A list of options compared by identity, along with whether their names are
+     * matched ignoring case.
+     */
+    private static final class OptionsKey {
+
+        private final List<JcCommandOption<?>> options;
+        private final boolean ignoreCase;
+
+        private OptionsKey(List<JcCommandOption<?>> options, boolean ignoreCase) {
+            this.options = options;
+            this.ignoreCase = ignoreCase;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = Boolean.hashCode(ignoreCase);
+            for (var option : options) {
+                hash = 31 * hash + System.identityHashCode(option);
+            }
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof OptionsKey)) {
+                return false;
+            }
+            var other = (OptionsKey) obj;
+            if (ignoreCase != other.ignoreCase || options.size() != other.options.size()) {
+                return false;
+            }
+            for (int i = 0; i < options.size(); i++) {
+                if (options.get(i) != other.options.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
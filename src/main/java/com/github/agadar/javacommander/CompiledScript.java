@@ -0,0 +1,109 @@
+package com.github.agadar.javacommander;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.github.agadar.javacommander.exception.JavaCommanderException;
+import com.github.agadar.javacommander.exception.StaleScriptException;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * A script whose commands were found and whose arguments were parsed once, so
+ * that it can be run any number of times without tokenizing or parsing it
+ * again. Running it only invokes the commands. Obtained through
+ * {@link JavaCommander#compile(String)}.
+ * <p>
+ * A compiled script is immutable and can be run by several threads at once. It
+ * is only valid for as long as the registry it was compiled against is not
+ * changed; running it afterwards fails, and the script should be compiled
+ * again. Arguments are parsed once, so an argument that is e.g. an array is
+ * shared by every run.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public final class CompiledScript {
+
+    /**
+     * The source the script was compiled from.
+     */
+    @Getter
+    private final String source;
+
+    private final JavaCommander javaCommander;
+
+    /**
+     * The version of the registry the script was compiled against.
+     */
+    private final long registryVersion;
+
+    /**
+     * The commands of the script, with their arguments, in groups of commands
+     * that are executed concurrently.
+     */
+    final List<List<BoundCommand>> boundGroups;
+
+    /**
+     * Constructor.
+     *
+     * @param source          The source the script was compiled from.
+     * @param javaCommander   The JavaCommander instance that compiled it.
+     * @param registryVersion The version of the registry it was compiled against.
+     * @param boundGroups     The commands of the script, with their arguments.
+     */
+    CompiledScript(String source, JavaCommander javaCommander, long registryVersion,
+            List<List<BoundCommand>> boundGroups) {
+        this.source = source;
+        this.javaCommander = javaCommander;
+        this.registryVersion = registryVersion;
+        this.boundGroups = boundGroups;
+    }
+
+    /**
+     * Returns whether the registry was changed since the script was compiled, in
+     * which case it can no longer be run.
+     *
+     * @return Whether the script is stale.
+     */
+    public boolean isStale() {
+        return javaCommander.getRegistry().getVersion() != registryVersion;
+    }
+
+    /**
+     * Runs the script.
+     *
+     * @return A future completed with the values returned by the commands.
+     * @throws JavaCommanderException If the script is stale, or if invoking a
+     *                                command failed, containing a cause.
+     * @see #run(ExecutionContext)
+     */
+    public CompletableFuture<List<Object>> run() throws JavaCommanderException {
+        return run(ExecutionContext.EMPTY);
+    }
+
+    /**
+     * Runs the script in the context. The commands are executed as by
+     * {@link JavaCommander#execute(String, ExecutionContext)}.
+     *
+     * @param context The context to execute the commands in.
+     * @return A future completed with the values returned by the commands, in the
+     *         order they were given in.
+     * @throws StaleScriptException   If the registry was changed since the script
+     *                                was compiled, in which case no command is
+     *                                invoked.
+     * @throws JavaCommanderException If invoking a command failed, containing a
+     *                                cause.
+     */
+    public CompletableFuture<List<Object>> run(@NonNull ExecutionContext context) throws JavaCommanderException {
+        if (isStale()) {
+            throw new StaleScriptException(source);
+        }
+        return javaCommander.run(this, context);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,227 @@
+package com.github.agadar.javacommander;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a group of tasks concurrently, in the manner of a structured task scope
+ * that shuts down on failure, which Java 17 does not offer yet. The first task
+ * to fail cancels the others, interrupting those that are running, and cancels
+ * the stages they returned if those are futures. The group completes only once
+ * every task has finished running and every stage returned by a task has
+ * completed, so that no task of a group outlives it, and never blocks a thread
+ * while waiting for its tasks.
+ * <p>
+ * A task may depend on earlier tasks of the group, in which case it is started
+ * only once those have finished, including the stages they returned.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+final class ConcurrentGroup {
+
+    private final List<GroupTask> tasks;
+    private final Object[] results;
+    private final Executor executor;
+    private final AtomicInteger unfinishedTasks;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final CompletableFuture<List<Object>> completion = new CompletableFuture<>();
+
+    private ConcurrentGroup(List<? extends Callable<Object>> callables,
+            List<? extends Collection<Integer>> dependencies, Executor executor) {
+        this.results = new Object[callables.size()];
+        this.executor = executor;
+        this.unfinishedTasks = new AtomicInteger(callables.size());
+        this.tasks = new ArrayList<>(callables.size());
+        for (int i = 0; i < callables.size(); i++) {
+            var task = new GroupTask(callables.get(i), i, dependencies.get(i).size());
+            for (int dependency : dependencies.get(i)) {
+                if (dependency < 0 || dependency >= i) {
+                    throw new IllegalArgumentException("Tasks should only depend on earlier tasks");
+                }
+                tasks.get(dependency).dependents.add(task);
+            }
+            tasks.add(task);
+        }
+    }
+
+    /**
+     * Runs the tasks concurrently on the executor.
+     *
+     * @param callables The tasks to run.
+     * @param executor  The executor to run the tasks on.
+     * @return A future completed with the results of the tasks in order, with the
+     *         values that stages completed with in place of stages. Completed
+     *         exceptionally with the first failure once all tasks have finished.
+     *         Cancelling it cancels the tasks.
+     */
+    static CompletableFuture<List<Object>> invokeAll(List<? extends Callable<Object>> callables, Executor executor) {
+        return invokeAll(callables, Collections.nCopies(callables.size(), List.of()), executor);
+    }
+
+    /**
+     * Runs the tasks on the executor, each as soon as the tasks it depends on have
+     * finished.
+     *
+     * @param callables    The tasks to run.
+     * @param dependencies For each task, the indexes of the earlier tasks it
+     *                     depends on.
+     * @param executor     The executor to run the tasks on.
+     * @return A future completed with the results of the tasks in order, with the
+     *         values that stages completed with in place of stages. Completed
+     *         exceptionally with the first failure once all tasks have finished.
+     *         Cancelling it cancels the tasks.
+     * @throws IllegalArgumentException If a task depends on a task that is not
+     *                                  an earlier one.
+     */
+    static CompletableFuture<List<Object>> invokeAll(List<? extends Callable<Object>> callables,
+            List<? extends Collection<Integer>> dependencies, Executor executor) throws IllegalArgumentException {
+        var group = new ConcurrentGroup(callables, dependencies, executor);
+        if (callables.isEmpty()) {
+            group.completion.complete(List.of());
+            return group.completion;
+        }
+        group.completion.whenComplete((results, failure) -> {
+            if (group.completion.isCancelled()) {
+                group.cancelAll();
+            }
+        });
+        var independentTasks = group.tasks.stream().filter(task -> task.unfinishedDependencies.get() == 0)
+                .toList();
+        for (var task : independentTasks) {
+            group.submit(task);
+        }
+        return group.completion;
+    }
+
+    private void submit(GroupTask task) {
+        if (task.isCancelled()) {
+            task.run();
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (RuntimeException ex) {
+            fail(ex);
+            task.cancel(false);
+            task.run();
+        }
+    }
+
+    private void fail(Throwable cause) {
+        if (failure.compareAndSet(null, cause)) {
+            cancelAll();
+        }
+    }
+
+    private void cancelAll() {
+        for (var task : tasks) {
+            task.cancel(true);
+            cancelStage(task.stage);
+        }
+    }
+
+    /**
+     * Cancels the stage if it is a future that can be cancelled. The group still
+     * waits for the stage to complete.
+     */
+    private static void cancelStage(CompletionStage<?> stage) {
+        if (stage instanceof Future) {
+            try {
+                ((Future<?>) stage).cancel(true);
+            } catch (UnsupportedOperationException ex) {
+                // E.g. a minimal completion stage, which cannot be cancelled.
+            }
+        }
+    }
+
+    /**
+     * Starts the tasks that depended only on the finished task, and completes the
+     * group once it was the last task to finish.
+     */
+    private void finished(GroupTask task) {
+        for (var dependent : task.dependents) {
+            if (dependent.unfinishedDependencies.decrementAndGet() == 0) {
+                submit(dependent);
+            }
+        }
+        if (unfinishedTasks.decrementAndGet() > 0) {
+            return;
+        }
+        if (failure.get() != null) {
+            completion.completeExceptionally(failure.get());
+        } else {
+            completion.complete(Collections.unmodifiableList(Arrays.asList(results)));
+        }
+    }
+
+    /**
+     * A task of the group, which stores its result and reports when it finished
+     * running, including when it was cancelled before it started. A task that
+     * returned a stage finishes once the stage completes.
+     */
+    private final class GroupTask extends FutureTask<Object> {
+
+        private final int index;
+        private final AtomicInteger unfinishedDependencies;
+        private final List<GroupTask> dependents = new ArrayList<>();
+
+        /**
+         * The stage the task returned, if it has not completed yet.
+         */
+        private volatile CompletionStage<?> stage;
+
+        private GroupTask(Callable<Object> callable, int index, int dependencies) {
+            super(() -> {
+                try {
+                    results[index] = callable.call();
+                    return results[index];
+                } catch (Throwable ex) {
+                    fail(ex);
+                    throw ex;
+                }
+            });
+            this.index = index;
+            this.unfinishedDependencies = new AtomicInteger(dependencies);
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                if (results[index] instanceof CompletionStage) {
+
+                    // The task finishes once its stage completes, also if the group failed
+                    // meanwhile, in which case the stage is cancelled if possible.
+                    var returnedStage = (CompletionStage<?>) results[index];
+                    stage = returnedStage;
+                    returnedStage.whenComplete((value, stageFailure) -> {
+                        stage = null;
+                        if (stageFailure != null) {
+                            fail(stageFailure);
+                        } else {
+                            results[index] = value;
+                        }
+                        finished(this);
+                    });
+                    if (failure.get() != null) {
+                        cancelStage(returnedStage);
+                    }
+                } else {
+                    finished(this);
+                }
+            }
+        }
+    }
+}
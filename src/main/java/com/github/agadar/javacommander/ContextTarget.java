@@ -0,0 +1,38 @@
+package com.github.agadar.javacommander;
+
+/**
+ * Stands in for the object to invoke commands on for commands registered by
+ * type, whose object is only resolved from the {@link ExecutionContext} when
+ * the command is executed. There is one instance per type, so that it can serve
+ * as the key under which the registry groups the type's commands.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+final class ContextTarget {
+
+    private static final ClassValue<ContextTarget> CONTEXT_TARGETS = new ClassValue<>() {
+        @Override
+        protected ContextTarget computeValue(Class<?> type) {
+            return new ContextTarget(type);
+        }
+    };
+
+    /**
+     * The type of the objects to invoke commands on.
+     */
+    final Class<?> type;
+
+    private ContextTarget(Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * Returns the instance for the type.
+     *
+     * @param type The type of the objects to invoke commands on.
+     * @return The instance for the type.
+     */
+    static ContextTarget of(Class<?> type) {
+        return CONTEXT_TARGETS.get(type);
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.agadar.javacommander;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the executor that commands are executed on asynchronously if no other
+ * executor is supplied. Runs each command on a virtual thread of its own if the
+ * runtime supports virtual threads. Otherwise, runs commands on a pool of
+ * daemon threads that grows with the number of commands running at once and
+ * shrinks when threads are idle.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+final class DefaultExecutor {
+
+    /**
+     * The default executor, created the first time it is used.
+     */
+    static final ExecutorService INSTANCE = create();
+
+    private DefaultExecutor() {
+    }
+
+    private static ExecutorService create() {
+        try {
+            // Virtual threads are only available from Java 21 on.
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            var threadNumber = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                var thread = new Thread(runnable, "javacommander-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
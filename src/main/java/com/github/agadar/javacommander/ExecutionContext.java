@@ -0,0 +1,123 @@
+package com.github.agadar.javacommander;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The context that commands are executed in, supplied by the caller of
+ * {@link JavaCommander#execute(String, ExecutionContext)}. Holds what differs
+ * per caller rather than per registered command, such as the objects to invoke
+ * commands registered by type on, the buffer commands write output to, and the
+ * deadline commands have to finish by. Immutable; the with-methods return a changed copy.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public class ExecutionContext {
+
+    /**
+     * The context used when the caller does not supply one. It resolves no
+     * targets.
+     */
+    public static final ExecutionContext EMPTY = new ExecutionContext(targetType -> null);
+
+    /**
+     * The longest timeout, to which longer ones are capped.
+     */
+    private static final Duration MAX_TIMEOUT = Duration.ofNanos(Long.MAX_VALUE / 4);
+
+    /**
+     * Resolves the objects to invoke commands registered by type on.
+     */
+    @Getter
+    private final TargetResolver targetResolver;
+
+    /**
+     * The buffer that commands write their output to, or null if each command
+     * prints its output to System.out.
+     */
+    @Getter
+    private final CommandOutput output;
+
+    /**
+     * Whether commands have to finish by the deadline.
+     */
+    private final boolean hasDeadline;
+
+    /**
+     * The value of {@link System#nanoTime()} by which commands have to finish, if
+     * there is a deadline.
+     */
+    private final long deadlineNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param targetResolver Resolves the objects to invoke commands registered by
+     *                       type on.
+     */
+    public ExecutionContext(@NonNull TargetResolver targetResolver) {
+        this(targetResolver, null);
+    }
+
+    /**
+     * Constructor for a context that resolves each type to the first of the
+     * targets that is an instance of it.
+     *
+     * @param targets The objects to invoke commands registered by type on.
+     */
+    public ExecutionContext(@NonNull Object... targets) {
+        this(TargetResolver.of(targets));
+    }
+
+    private ExecutionContext(TargetResolver targetResolver, CommandOutput output) {
+        this(targetResolver, output, false, 0);
+    }
+
+    private ExecutionContext(TargetResolver targetResolver, CommandOutput output, boolean hasDeadline,
+            long deadlineNanos) {
+        this.targetResolver = targetResolver;
+        this.output = output;
+        this.hasDeadline = hasDeadline;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Returns a copy of this context in which commands write their output to the
+     * buffer.
+     *
+     * @param output The buffer to write output to.
+     * @return The copy.
+     */
+    public ExecutionContext withOutput(@NonNull CommandOutput output) {
+        return new ExecutionContext(targetResolver, output, hasDeadline, deadlineNanos);
+    }
+
+    /**
+     * Returns a copy of this context in which commands have to finish within the
+     * timeout from now. A command still running at the deadline is interrupted
+     * and fails with a CommandTimeoutException, and commands started after the
+     * deadline fail right away, so that the rest of a sequence of commands is
+     * skipped. The deadline applies to every execution in the copy, so a new
+     * copy should be made for each execution.
+     *
+     * @param timeout The time the commands have to finish in.
+     * @return The copy.
+     */
+    public ExecutionContext withTimeout(@NonNull Duration timeout) {
+        long timeoutNanos = timeout.isNegative() ? 0
+                : timeout.compareTo(MAX_TIMEOUT) > 0 ? MAX_TIMEOUT.toNanos() : timeout.toNanos();
+        return new ExecutionContext(targetResolver, output, true, System.nanoTime() + timeoutNanos);
+    }
+
+    /**
+     * Returns the time left until the deadline.
+     *
+     * @return The nanoseconds until the deadline, which are negative once it has
+     *         passed, or Long.MAX_VALUE if there is no deadline.
+     */
+    long remainingNanos() {
+        return hasDeadline ? deadlineNanos - System.nanoTime() : Long.MAX_VALUE;
+    }
+}
@@ -1,36 +1,108 @@
 package com.github.agadar.javacommander;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 
 import com.github.agadar.javacommander.exception.JavaCommanderException;
 import com.github.agadar.javacommander.exception.UnknownCommandException;
 import com.github.agadar.javacommander.misc.ArgumentsParser;
+import com.github.agadar.javacommander.misc.FootprintReport;
 import com.github.agadar.javacommander.misc.Tokenizer;
 
 import lombok.NonNull;
 
 /**
  * Manages an application's commands.
+ * <p>
+ * Commands can be executed by several threads at once, as long as the commands
+ * are only changed through {@link #updateRegistry(RegistryUpdate)}. The
+ * registering and unregistering methods of this class change the registry in
+ * place instead, which is cheaper but only safe while nothing is executed.
  *
  * @author Agadar (https://github.com/Agadar/)
  */
 public class JavaCommander {
 
-    private final JcRegistry jcRegistry;
+    /**
+     * The current version of the registry. Replaced as a whole when the registry
+     * is updated, so that executions keep using the version they started with.
+     */
+    private volatile JcRegistry jcRegistry;
     private final ArgumentsParser argumentsParser;
     private final Tokenizer tokenizer;
 
+    /**
+     * The executor that asynchronously executed commands are invoked on.
+     */
+    private final Executor executor;
+
+    /**
+     * The lanes that commands executed asynchronously are invoked in, if they have
+     * a partition key.
+     */
+    private final SerialLanes partitionLanes;
+
     public JavaCommander() {
         this(new JcRegistry(), new ArgumentsParser(), new Tokenizer());
     }
 
+    /**
+     * Constructor. Commands executed asynchronously are invoked on virtual threads
+     * if the runtime supports them, or else on a shared pool of daemon threads.
+     *
+     * @param jcRegistry      The registry of commands.
+     * @param argumentsParser The parser of the commands' arguments.
+     * @param tokenizer       The tokenizer of input strings.
+     */
     public JavaCommander(@NonNull JcRegistry jcRegistry, @NonNull ArgumentsParser argumentsParser,
             @NonNull Tokenizer tokenizer) {
+        this(jcRegistry, argumentsParser, tokenizer, DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param jcRegistry      The registry of commands.
+     * @param argumentsParser The parser of the commands' arguments.
+     * @param tokenizer       The tokenizer of input strings.
+     * @param executor        The executor that commands executed asynchronously
+     *                        are invoked on.
+     */
+    public JavaCommander(@NonNull JcRegistry jcRegistry, @NonNull ArgumentsParser argumentsParser,
+            @NonNull Tokenizer tokenizer, @NonNull Executor executor) {
+        this(jcRegistry, argumentsParser, tokenizer, executor, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param jcRegistry      The registry of commands.
+     * @param argumentsParser The parser of the commands' arguments.
+     * @param tokenizer       The tokenizer of input strings.
+     * @param executor        The executor that commands executed asynchronously
+     *                        are invoked on.
+     * @param partitionLanes  The number of serial lanes that commands executed
+     *                        asynchronously are spread over by partition key.
+     * @throws IllegalArgumentException If the number of lanes is not positive.
+     */
+    public JavaCommander(@NonNull JcRegistry jcRegistry, @NonNull ArgumentsParser argumentsParser,
+            @NonNull Tokenizer tokenizer, @NonNull Executor executor, int partitionLanes)
+            throws IllegalArgumentException {
         this.jcRegistry = jcRegistry;
         this.argumentsParser = argumentsParser;
         this.tokenizer = tokenizer;
+        this.executor = executor;
+        this.partitionLanes = new SerialLanes(executor, partitionLanes);
     }
 
     /**
@@ -39,11 +111,13 @@ public class JavaCommander {
      *
      * @param input The string array to parse and execute the corresponding commands
      *              of.
+     * @return A future completed with the values returned by the commands.
      * @throws JavaCommanderException If something went wrong, containing a cause.
+     * @see #execute(Collection, ExecutionContext)
      */
-    public void execute(@NonNull String[] input) throws JavaCommanderException {
+    public CompletableFuture<List<Object>> execute(@NonNull String[] input) throws JavaCommanderException {
         String joinedInput = String.join(" ", input);
-        execute(joinedInput);
+        return execute(joinedInput);
     }
 
     /**
@@ -51,11 +125,131 @@ public class JavaCommander {
      * find and execute the sequence of commands defined in it.
      *
      * @param input The string to parse and execute the corresponding commands of.
+     * @return A future completed with the values returned by the commands.
      * @throws JavaCommanderException If something went wrong, containing a cause.
+     * @see #execute(Collection, ExecutionContext)
      */
-    public void execute(@NonNull String input) throws JavaCommanderException {
-        var argumentTokensLists = tokenizer.tokenize(input);
-        execute(argumentTokensLists);
+    public CompletableFuture<List<Object>> execute(@NonNull String input) throws JavaCommanderException {
+        return execute(input, ExecutionContext.EMPTY);
+    }
+
+    /**
+     * Parses a string to groups of argument token lists, and then attempts to find
+     * and execute the sequence of commands defined in it, in the context.
+     * <p>
+     * Consecutive commands that declare the resources they read and write, see
+     * {@link com.github.agadar.javacommander.annotation.Command#reads()}, are
+     * executed concurrently on the executor as far as their resources allow. A
+     * command that writes a resource waits for the earlier commands that read or
+     * write it, and a command that reads a resource waits for the earlier
+     * commands that write it. Commands that declare no resources are executed
+     * only after all earlier commands have finished, and before all later ones.
+     * <p>
+     * Commands separated by '&amp;' rather than ';', e.g. 'fetch a &amp; fetch b;
+     * merge', are executed concurrently on the executor, and the next command
+     * only once all of them have finished. If one of them fails, the others are
+     * cancelled, and the later commands are skipped. Each of them writes to an
+     * output of its own, which is appended to the context's output once all of
+     * them have finished, in the order they were given in.
+     *
+     * @param input   The string to parse and execute the corresponding commands
+     *                of.
+     * @param context The context to execute the commands in, which resolves the
+     *                objects to invoke commands registered by type on.
+     * @return A future completed with the values returned by the commands, in the
+     *         order they were given in.
+     * @throws JavaCommanderException If something went wrong, containing a cause.
+     * @see #execute(Collection, ExecutionContext)
+     * @see Tokenizer#tokenizeGroups(String)
+     */
+    public CompletableFuture<List<Object>> execute(@NonNull String input, @NonNull ExecutionContext context)
+            throws JavaCommanderException {
+        var registry = jcRegistry;
+        var groupsIterator = tokenizer.tokenizeGroups(input).iterator();
+        return runSteps(new Steps() {
+
+            /**
+             * The group after the last segment, which ended the segment.
+             */
+            private List<List<String>> pendingGroup;
+
+            /**
+             * The command of the pending group, if it has one command that was found.
+             */
+            private JcCommand pendingCommand;
+
+            /**
+             * The failure to find the command of the pending group, if it has one
+             * command that was not found.
+             */
+            private UnknownCommandException pendingFailure;
+
+            @Override
+            public Step next() throws JavaCommanderException {
+                List<List<String>> group;
+                JcCommand command = null;
+                if (pendingFailure != null) {
+                    var failure = pendingFailure;
+                    pendingFailure = null;
+                    throw failure;
+                } else if (pendingGroup != null) {
+                    group = pendingGroup;
+                    command = pendingCommand;
+                    pendingGroup = null;
+                    pendingCommand = null;
+                } else if (groupsIterator.hasNext()) {
+                    group = groupsIterator.next();
+                } else {
+                    return null;
+                }
+                if (group.size() > 1) {
+                    return () -> invokeGroup(bindAll(registry, group), context);
+                }
+                var boundCommand = command != null ? bind(command, group.get(0)) : bind(registry, group.get(0));
+                if (!boundCommand.command.getMetadata().declaresResources()) {
+                    return () -> boundCommand.invoke(context);
+                }
+                var segment = new ArrayList<BoundCommand>();
+                segment.add(boundCommand);
+                while (groupsIterator.hasNext()) {
+                    if (!extendSegment(segment, groupsIterator.next())) {
+                        break;
+                    }
+                }
+                return segment.size() == 1 ? () -> boundCommand.invoke(context)
+                        : () -> invokeSegment(segment, context);
+            }
+
+            /**
+             * Adds the group's command to the segment if it declares resources, or
+             * otherwise keeps the group as the pending group. Commands that are not
+             * found end the segment, so that the failure is reported once the
+             * segment has been executed.
+             *
+             * @return Whether the command was added.
+             */
+            private boolean extendSegment(List<BoundCommand> segment, List<List<String>> group)
+                    throws JavaCommanderException {
+                pendingGroup = group;
+                if (group.size() > 1 || group.get(0).isEmpty()) {
+                    return false;
+                }
+                try {
+                    pendingCommand = registry.resolveCommand(group.get(0));
+                } catch (UnknownCommandException ex) {
+                    pendingGroup = null;
+                    pendingFailure = ex;
+                    return false;
+                }
+                if (!pendingCommand.getMetadata().declaresResources()) {
+                    return false;
+                }
+                segment.add(bind(pendingCommand, group.get(0)));
+                pendingGroup = null;
+                pendingCommand = null;
+                return true;
+            }
+        }, new ArrayList<>());
     }
 
     /**
@@ -63,32 +257,557 @@ public class JavaCommander {
      * of lists of argument tokens.
      *
      * @param argumentTokensLists The collection of argument token lists.
+     * @return A future completed with the values returned by the commands.
      * @throws JavaCommanderException If something went wrong, containing a cause.
+     * @see #execute(Collection, ExecutionContext)
      */
-    public void execute(@NonNull Collection<List<String>> argumentTokensLists) throws JavaCommanderException {
-        for (var argumentTokens : argumentTokensLists) {
-            execute(argumentTokens);
-        }
+    public CompletableFuture<List<Object>> execute(@NonNull Collection<List<String>> argumentTokensLists)
+            throws JavaCommanderException {
+        return execute(argumentTokensLists, ExecutionContext.EMPTY);
+    }
+
+    /**
+     * Attempts to find and execute the sequence of commands defined in a collection
+     * of lists of argument tokens, in the context.
+     * <p>
+     * The commands are executed on the calling thread, one after the other. A
+     * command may return a {@link CompletionStage}, e.g. of a call to a
+     * non-blocking client. If the stage has not completed yet, this returns right
+     * away, and the next command is executed on the executor once the stage
+     * completes, so that no thread is kept waiting for it. Otherwise, the returned
+     * future is already completed.
+     * <p>
+     * The values returned by the commands are collected, so that callers can use
+     * them directly, e.g. to serialize them to a client, rather than having
+     * commands print them and capturing the printed text.
+     *
+     * @param argumentTokensLists The collection of argument token lists.
+     * @param context             The context to execute the commands in.
+     * @return A future completed with the values returned by the commands, in
+     *         order, with the values their stages completed with in place of
+     *         stages, and with null for commands that return nothing. Completed
+     *         exceptionally if a stage completed exceptionally, or if a command
+     *         after such a stage failed; the later commands are then skipped.
+     * @throws JavaCommanderException If executing a command failed before any
+     *                                command returned a stage that had not
+     *                                completed yet, containing a cause.
+     */
+    public CompletableFuture<List<Object>> execute(@NonNull Collection<List<String>> argumentTokensLists,
+            @NonNull ExecutionContext context) throws JavaCommanderException {
+        var registry = jcRegistry;
+        var argumentTokensIterator = argumentTokensLists.iterator();
+        return runSteps(() -> argumentTokensIterator.hasNext()
+                ? () -> execute(registry, argumentTokensIterator.next(), context)
+                : null, new ArrayList<>(argumentTokensLists.size()));
     }
 
     /**
      * Attempts to find and execute the command defined in a list of argument
-     * tokens.
+     * tokens. Sub-commands are named by their parents' names followed by their own,
+     * e.g. 'remote add origin'. The first name may be abbreviated, as long as the
+     * abbreviation is unique among the top-level commands.
      *
      * @param argumentTokens The list of argument tokens.
+     * @return The value returned by the command, or null if it returns nothing.
      * @throws JavaCommanderException If something went wrong, containing a cause.
      */
-    public void execute(@NonNull List<String> argumentTokens) throws JavaCommanderException {
+    public Object execute(@NonNull List<String> argumentTokens) throws JavaCommanderException {
+        return execute(argumentTokens, ExecutionContext.EMPTY);
+    }
+
+    /**
+     * Attempts to find and execute the command defined in a list of argument
+     * tokens, in the context.
+     *
+     * @param argumentTokens The list of argument tokens.
+     * @param context        The context to execute the command in.
+     * @return The value returned by the command, or null if it returns nothing.
+     * @throws JavaCommanderException If something went wrong, containing a cause.
+     */
+    public Object execute(@NonNull List<String> argumentTokens, @NonNull ExecutionContext context)
+            throws JavaCommanderException {
+        return execute(jcRegistry, argumentTokens, context);
+    }
+
+    /**
+     * Parses a string to groups of argument token lists, finds the commands
+     * defined in it and parses their arguments, and then invokes the commands in
+     * sequence on the executor, the commands of each group concurrently. Only the
+     * invocations are left to the executor, so that the calling thread, e.g. one
+     * reading input from a network connection, is never blocked by a slow
+     * command.
+     * <p>
+     * If commands have a partition key, see
+     * {@link com.github.agadar.javacommander.annotation.Option#partitionKey()},
+     * the input is executed in the serial lanes the keys map to. Inputs whose keys
+     * are equal are then executed one after the other, in the order they were
+     * submitted in, including any stages their commands return, while inputs in
+     * other lanes are executed concurrently. An input whose commands have keys
+     * in several lanes waits for the earlier inputs in each of them, and holds up
+     * the later ones. Commands without a key do not affect the order.
+     *
+     * @param input The string to parse and execute the corresponding commands of.
+     * @return A future completed with the values returned by the commands, in
+     *         order, with the values their stages completed with in place of
+     *         {@link CompletionStage}s. Completed exceptionally with a
+     *         CommandInvocationException if invoking a command failed, in which
+     *         case the later commands are skipped.
+     * @throws JavaCommanderException If finding a command or parsing its arguments
+     *                                failed, in which case no command is invoked.
+     */
+    public CompletableFuture<List<Object>> executeAsync(@NonNull String input) throws JavaCommanderException {
+        return executeAsync(input, ExecutionContext.EMPTY);
+    }
+
+    /**
+     * Like {@link #executeAsync(String)}, but executing the commands in the
+     * context.
+     *
+     * @param input   The string to parse and execute the corresponding commands
+     *                of.
+     * @param context The context to execute the commands in.
+     * @return A future completed with the values returned by the commands.
+     * @throws JavaCommanderException If finding a command or parsing its arguments
+     *                                failed, in which case no command is invoked.
+     */
+    public CompletableFuture<List<Object>> executeAsync(@NonNull String input, @NonNull ExecutionContext context)
+            throws JavaCommanderException {
+        var registry = jcRegistry;
+        var boundGroups = new ArrayList<List<BoundCommand>>();
+        for (var group : tokenizer.tokenizeGroups(input)) {
+            boundGroups.add(bindAll(registry, group));
+        }
+        return invokeAsync(boundGroups, context);
+    }
+
+    /**
+     * Finds the command defined in a list of argument tokens and parses its
+     * arguments, and then invokes the command on the executor.
+     *
+     * @param argumentTokens The list of argument tokens.
+     * @return A future completed with the value returned by the command, or
+     *         completed exceptionally with a CommandInvocationException.
+     * @throws JavaCommanderException If finding the command or parsing its
+     *                                arguments failed.
+     */
+    public CompletableFuture<Object> executeAsync(@NonNull List<String> argumentTokens)
+            throws JavaCommanderException {
+        return executeAsync(argumentTokens, ExecutionContext.EMPTY);
+    }
+
+    /**
+     * Like {@link #executeAsync(List)}, but executing the command in the context.
+     *
+     * @param argumentTokens The list of argument tokens.
+     * @param context        The context to execute the command in.
+     * @return A future completed with the value returned by the command.
+     * @throws JavaCommanderException If finding the command or parsing its
+     *                                arguments failed.
+     */
+    public CompletableFuture<Object> executeAsync(@NonNull List<String> argumentTokens,
+            @NonNull ExecutionContext context) throws JavaCommanderException {
+        return invokeAsync(List.of(List.of(bind(jcRegistry, argumentTokens))), context)
+                .thenApply(results -> results.get(0));
+    }
+
+    /**
+     * Parses a string to groups of argument token lists, finds the commands
+     * defined in it and parses their arguments, once, so that the resulting
+     * script can be run repeatedly without doing so again. The script is valid
+     * until the registry changes.
+     *
+     * @param input The string to parse and find the corresponding commands of.
+     * @return The compiled script.
+     * @throws JavaCommanderException If finding a command or parsing its arguments
+     *                                failed.
+     * @see CompiledScript#run(ExecutionContext)
+     */
+    public CompiledScript compile(@NonNull String input) throws JavaCommanderException {
+        return compile(jcRegistry, input);
+    }
+
+    private CompiledScript compile(JcRegistry registry, String input) throws JavaCommanderException {
+        long registryVersion = registry.getVersion();
+        var boundGroups = new ArrayList<List<BoundCommand>>();
+        for (var group : tokenizer.tokenizeGroups(input)) {
+            boundGroups.add(List.copyOf(bindAll(registry, group)));
+        }
+        return new CompiledScript(input, this, registryVersion, List.copyOf(boundGroups));
+    }
+
+    /**
+     * Like {@link #compile(String)}, but loads the compiled script from the file
+     * if it was saved there before, so that large scripts run at each start of
+     * the application are not tokenized and parsed again. The file is only used
+     * if the script in it was compiled from the same string, against commands
+     * with the same fingerprint, see {@link JcRegistry#getFingerprint()}.
+     * Otherwise, the script is compiled anew and the file is replaced with it.
+     * <p>
+     * Scripts whose arguments are of types other than strings and primitive
+     * types are compiled but not saved. Failing to read or write the file is
+     * logged, and does not fail the compilation.
+     *
+     * @param input     The string to parse and find the corresponding commands
+     *                  of.
+     * @param cacheFile The file to load the compiled script from or save it to.
+     * @return The compiled script.
+     * @throws JavaCommanderException If finding a command or parsing its arguments
+     *                                failed.
+     */
+    public CompiledScript compile(@NonNull String input, @NonNull Path cacheFile) throws JavaCommanderException {
+        var registry = jcRegistry;
+        var script = ScriptFile.read(cacheFile, input, this, registry);
+        if (script == null) {
+            script = compile(registry, input);
+            ScriptFile.write(cacheFile, script, registry);
+        }
+        return script;
+    }
+
+    /**
+     * Finds the command defined in a string and parses the values given to its
+     * options, once, leaving the options given a placeholder ('?') instead, e.g.
+     * 'transfer -from ? -to ? -amount ?', to be bound before each execution. The
+     * prepared command is valid until the registry changes.
+     *
+     * @param input The string defining a single command.
+     * @return The prepared command.
+     * @throws JavaCommanderException If finding the command or parsing its
+     *                                arguments failed.
+     * @see PreparedCommand#execute(ExecutionContext)
+     */
+    public PreparedCommand prepare(@NonNull String input) throws JavaCommanderException {
+        var groups = tokenizer.tokenizeGroups(input);
+        if (groups.size() != 1 || groups.get(0).size() != 1) {
+            throw new IllegalArgumentException("'input' should define exactly one command");
+        }
+        var registry = jcRegistry;
+        long registryVersion = registry.getVersion();
+        var argumentTokens = groups.get(0).get(0);
+        var command = registry.resolveCommand(argumentTokens);
+        var commandTokens = argumentTokens.subList(command.getParents().size(), argumentTokens.size());
+        var placeholderIndices = new ArrayList<Integer>();
+        var args = argumentsParser.parseArguments(commandTokens, command, PreparedCommand.PLACEHOLDER,
+                placeholderIndices);
+        return new PreparedCommand(input, this, registryVersion, command, args, placeholderIndices);
+    }
+
+    /**
+     * Applies the update to a copy of the registry, and then replaces the registry
+     * with the copy in one step. Commands being executed meanwhile are resolved in
+     * the registry as it was before the update, so that e.g. reloading an object's
+     * commands never leaves them missing in between. Executions that started
+     * before the update keep the version they started with until they finish.
+     * <p>
+     * Updates are applied one at a time. If the registry was frozen, the updated
+     * copy is frozen as well.
+     *
+     * @param update The change to the registry's commands.
+     * @throws JavaCommanderException If the update failed, in which case the
+     *                                registry is left unchanged.
+     */
+    public synchronized void updateRegistry(@NonNull RegistryUpdate update) throws JavaCommanderException {
+        var currentRegistry = jcRegistry;
+        var updatedRegistry = currentRegistry.copy();
+        update.update(updatedRegistry);
+
+        if (currentRegistry.isFrozen() && !updatedRegistry.isFrozen()) {
+            updatedRegistry.freeze();
+        }
+        jcRegistry = updatedRegistry;
+    }
+
+    /**
+     * Returns the current version of the registry. It should not be changed
+     * directly while commands are executed; see
+     * {@link #updateRegistry(RegistryUpdate)}.
+     *
+     * @return The current version of the registry.
+     */
+    public JcRegistry getRegistry() {
+        return jcRegistry;
+    }
+
+    private Object execute(JcRegistry registry, List<String> argumentTokens, ExecutionContext context)
+            throws JavaCommanderException {
+        return bind(registry, argumentTokens).invoke(context);
+    }
+
+    private BoundCommand bind(JcRegistry registry, List<String> argumentTokens) throws JavaCommanderException {
         if (argumentTokens.isEmpty()) {
             throw new IllegalArgumentException("'args' should not be null or empty");
         }
-        var commandOpt = jcRegistry.getCommand(argumentTokens.get(0));
-        if (commandOpt.isEmpty()) {
-            throw new UnknownCommandException(argumentTokens.get(0));
+        return bind(registry.resolveCommand(argumentTokens), argumentTokens);
+    }
+
+    private BoundCommand bind(JcCommand command, List<String> argumentTokens) throws JavaCommanderException {
+        var commandTokens = argumentTokens.subList(command.getParents().size(), argumentTokens.size());
+        var finalArgs = argumentsParser.parseArguments(commandTokens, command);
+        return new BoundCommand(command, finalArgs);
+    }
+
+    private List<BoundCommand> bindAll(JcRegistry registry, List<List<String>> argumentTokensLists)
+            throws JavaCommanderException {
+        var boundCommands = new ArrayList<BoundCommand>(argumentTokensLists.size());
+        for (var argumentTokens : argumentTokensLists) {
+            boundCommands.add(bind(registry, argumentTokens));
+        }
+        return boundCommands;
+    }
+
+    /**
+     * Runs the compiled script's commands on the calling thread, as far as they
+     * do not return stages that have not completed yet.
+     *
+     * @param script  The compiled script, which is not stale.
+     * @param context The context to execute the commands in.
+     * @return A future completed with the values returned by the commands.
+     * @throws JavaCommanderException If invoking a command failed before any
+     *                                command returned a stage that had not
+     *                                completed yet.
+     */
+    CompletableFuture<List<Object>> run(CompiledScript script, ExecutionContext context)
+            throws JavaCommanderException {
+        return runSteps(planSteps(script.boundGroups, context), new ArrayList<>());
+    }
+
+    private CompletableFuture<List<Object>> invokeAsync(List<List<BoundCommand>> boundGroups,
+            ExecutionContext context) {
+        var future = new CompletableFuture<List<Object>>();
+        var steps = planSteps(boundGroups, context);
+        var lanes = findPartitionLanes(boundGroups);
+        try {
+            if (lanes.length == 0) {
+                executor.execute(() -> runStepsInto(steps, new ArrayList<>(), future));
+            } else {
+                partitionLanes.execute(lanes, () -> {
+                    runStepsInto(steps, new ArrayList<>(), future);
+                    return future;
+                });
+            }
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    /**
+     * Plans the steps invoking the groups of commands: consecutive commands that
+     * declare resources are invoked as a segment, and the commands of each other
+     * group concurrently.
+     */
+    private Steps planSteps(List<List<BoundCommand>> boundGroups, ExecutionContext context) {
+        var plannedSteps = new ArrayList<Step>(boundGroups.size());
+        var segment = new ArrayList<BoundCommand>();
+        for (var group : boundGroups) {
+            if (group.size() == 1 && group.get(0).command.getMetadata().declaresResources()) {
+                segment.add(group.get(0));
+                continue;
+            }
+            addSegmentStep(plannedSteps, List.copyOf(segment), context);
+            segment.clear();
+            plannedSteps.add(group.size() == 1 ? () -> group.get(0).invoke(context)
+                    : () -> invokeGroup(group, context));
+        }
+        addSegmentStep(plannedSteps, segment, context);
+        var plannedStepsIterator = plannedSteps.iterator();
+        return () -> plannedStepsIterator.hasNext() ? plannedStepsIterator.next() : null;
+    }
+
+    /**
+     * Returns the lanes of the commands' partition keys, in ascending order, or
+     * none if no command has a partition key.
+     */
+    private int[] findPartitionLanes(List<List<BoundCommand>> boundGroups) {
+        var lanes = new TreeSet<Integer>();
+        for (var group : boundGroups) {
+            for (var boundCommand : group) {
+                if (boundCommand.command.getMetadata().hasPartitionKey()) {
+                    lanes.add(partitionLanes.laneOf(boundCommand.getPartitionKey()));
+                }
+            }
+        }
+        return lanes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Invokes the commands concurrently on the executor.
+     *
+     * @return A future completed with the results of the commands.
+     */
+    private CompletableFuture<GroupResults> invokeGroup(List<BoundCommand> group, ExecutionContext context) {
+        return invokeGroup(group, Collections.nCopies(group.size(), List.of()), context);
+    }
+
+    /**
+     * Invokes the commands on the executor, each as soon as the earlier commands
+     * it conflicts with have finished.
+     *
+     * @return A future completed with the results of the commands.
+     */
+    private CompletableFuture<GroupResults> invokeSegment(List<BoundCommand> segment, ExecutionContext context) {
+        var dependencies = new ArrayList<List<Integer>>(segment.size());
+        for (int i = 0; i < segment.size(); i++) {
+            var metadata = segment.get(i).command.getMetadata();
+            var commandDependencies = new ArrayList<Integer>();
+            for (int j = 0; j < i; j++) {
+                if (metadata.conflictsWith(segment.get(j).command.getMetadata())) {
+                    commandDependencies.add(j);
+                }
+            }
+            dependencies.add(commandDependencies);
+        }
+        return invokeGroup(segment, dependencies, context);
+    }
+
+    /**
+     * Adds a step invoking the segment's commands, if there are any.
+     */
+    private void addSegmentStep(List<Step> steps, List<BoundCommand> segment, ExecutionContext context) {
+        if (segment.size() == 1) {
+            steps.add(() -> segment.get(0).invoke(context));
+        } else if (segment.size() > 1) {
+            steps.add(() -> invokeSegment(segment, context));
+        }
+    }
+
+    /**
+     * Invokes the commands on the executor, each once the commands it depends on
+     * have finished. If the context has an output, each command writes to an
+     * output of its own, which are appended to the context's output in order once
+     * all commands have finished, so that their output is not interleaved.
+     *
+     * @return A future completed with the results of the commands.
+     */
+    private CompletableFuture<GroupResults> invokeGroup(List<BoundCommand> group,
+            List<? extends Collection<Integer>> dependencies, ExecutionContext context) {
+        var output = context.getOutput();
+        var outputs = new ArrayList<CommandOutput>(output == null ? 0 : group.size());
+        var callables = new ArrayList<Callable<Object>>(group.size());
+        for (var boundCommand : group) {
+            var commandContext = context;
+            if (output != null) {
+                var commandOutput = new CommandOutput();
+                outputs.add(commandOutput);
+                commandContext = context.withOutput(commandOutput);
+            }
+            var finalCommandContext = commandContext;
+            callables.add(() -> boundCommand.invoke(finalCommandContext));
+        }
+        return ConcurrentGroup.invokeAll(callables, dependencies, executor).handle((results, failure) -> {
+            for (var commandOutput : outputs) {
+                output.append(commandOutput);
+            }
+            if (failure != null) {
+                throw new CompletionException(unwrap(failure));
+            }
+            return new GroupResults(results);
+        });
+    }
+
+    /**
+     * Runs the steps one after the other on the calling thread, until a step
+     * returns a stage that has not completed yet. The remaining steps are then
+     * run on the executor once the stage completes.
+     *
+     * @param steps   The steps to run.
+     * @param results The results of the steps run so far, to add the results of
+     *                the steps to.
+     * @return A future completed with the results, with the values that stages
+     *         completed with in place of stages.
+     * @throws JavaCommanderException If a step failed before any step returned a
+     *                                stage that had not completed yet.
+     */
+    private CompletableFuture<List<Object>> runSteps(Steps steps, List<Object> results)
+            throws JavaCommanderException {
+        Step step;
+        while ((step = steps.next()) != null) {
+            var result = step.run();
+            if (!(result instanceof CompletionStage)) {
+                addResult(results, result);
+                continue;
+            }
+            var stage = (CompletionStage<?>) result;
+            if (stage instanceof CompletableFuture && ((CompletableFuture<?>) stage).isDone()
+                    && !((CompletableFuture<?>) stage).isCompletedExceptionally()) {
+                addResult(results, ((CompletableFuture<?>) stage).join());
+                continue;
+            }
+            var future = new CompletableFuture<List<Object>>();
+            stage.whenCompleteAsync((value, failure) -> {
+                if (failure != null) {
+                    future.completeExceptionally(unwrap(failure));
+                } else {
+                    addResult(results, value);
+                    runStepsInto(steps, results, future);
+                }
+            }, executor);
+            return future;
+        }
+        return CompletableFuture.completedFuture(Collections.unmodifiableList(results));
+    }
+
+    /**
+     * Runs the steps, completing the future with the results.
+     */
+    private void runStepsInto(Steps steps, List<Object> results, CompletableFuture<List<Object>> future) {
+        try {
+            runSteps(steps, results).whenComplete((value, failure) -> {
+                if (failure != null) {
+                    future.completeExceptionally(unwrap(failure));
+                } else {
+                    future.complete(value);
+                }
+            });
+        } catch (Throwable ex) {
+            future.completeExceptionally(ex);
+        }
+    }
+
+    private static void addResult(List<Object> results, Object result) {
+        if (result instanceof GroupResults) {
+            results.addAll(((GroupResults) result).results);
+        } else {
+            results.add(result);
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    /**
+     * A step of a sequence of commands, e.g. executing one of the commands.
+     */
+    @FunctionalInterface
+    private interface Step {
+
+        Object run() throws JavaCommanderException;
+    }
+
+    /**
+     * The steps of a sequence of commands, handed out one at a time.
+     */
+    @FunctionalInterface
+    private interface Steps {
+
+        /**
+         * Returns the next step, or null if there are no more steps.
+         */
+        Step next() throws JavaCommanderException;
+    }
+
+    /**
+     * The results of a group of commands, which are added to the results of a
+     * sequence one by one rather than as a list.
+     */
+    private static final class GroupResults {
+
+        private final List<Object> results;
+
+        private GroupResults(List<Object> results) {
+            this.results = results;
         }
-        var command = commandOpt.get();
-        var finalArgs = argumentsParser.parseArguments(argumentTokens, command);
-        command.invoke(finalArgs);
     }
 
     /**
@@ -97,27 +816,51 @@ public class JavaCommander {
      * @param object The object containing annotated methods.
      * @throws JavaCommanderException If something went wrong, containing a cause.
      */
-    public void registerFromObject(@NonNull Object object) throws JavaCommanderException {
+    public synchronized void registerFromObject(@NonNull Object object) throws JavaCommanderException {
         jcRegistry.registerFromObject(object);
     }
 
+    /**
+     * Registers all annotated, public, non-static methods of the supplied object,
+     * while only weakly referencing the object. Its commands are unregistered
+     * some time after the object is garbage collected.
+     *
+     * @param object The object containing annotated methods.
+     * @throws JavaCommanderException If something went wrong, containing a cause.
+     */
+    public synchronized void registerFromObjectWeakly(@NonNull Object object) throws JavaCommanderException {
+        jcRegistry.registerFromObjectWeakly(object);
+    }
+
     /**
      * Registers all annotated, public, static methods of the supplied class.
      *
      * @param clazz The class containing annotated methods.
      * @throws JavaCommanderException If something went wrong, containing a cause.
      */
-    public void registerFromClass(@NonNull Class<?> clazz) throws JavaCommanderException {
+    public synchronized void registerFromClass(@NonNull Class<?> clazz) throws JavaCommanderException {
         jcRegistry.registerFromClass(clazz);
     }
 
+    /**
+     * Registers all annotated, public, non-static methods of the supplied type,
+     * resolving the object to invoke them on from the execution context each time
+     * one of them is executed.
+     *
+     * @param type The type containing annotated methods.
+     * @throws JavaCommanderException If something went wrong, containing a cause.
+     */
+    public synchronized void registerFromType(@NonNull Class<?> type) throws JavaCommanderException {
+        jcRegistry.registerFromType(type);
+    }
+
     /**
      * Registers commands directly instead of reading them from annotated objects or
      * classes.
      * 
      * @param jcCommands The commands to register directly.
      */
-    public void registerDirectly(@NonNull Collection<JcCommand> jcCommands) {
+    public synchronized void registerDirectly(@NonNull Collection<JcCommand> jcCommands) {
         jcRegistry.registerDirectly(jcCommands);
     }
 
@@ -126,28 +869,71 @@ public class JavaCommander {
      *
      * @param object The object whose annotated methods to unregister.
      */
-    public void unregisterFromObject(@NonNull Object object) {
+    public synchronized void unregisterFromObject(@NonNull Object object) {
         jcRegistry.unregisterFromObject(object);
     }
 
+    /**
+     * Unregisters all annotated methods of each of the supplied objects (or
+     * classes).
+     *
+     * @param objects The objects (or classes) whose annotated methods to
+     *                unregister.
+     */
+    public synchronized void unregisterAll(@NonNull Collection<?> objects) {
+        jcRegistry.unregisterAll(objects);
+    }
+
     /**
      * Unregisters all annotated, static methods of the supplied class.
      *
      * @param clazz The class whose annotated methods to unregister.
      */
-    public void unregisterFromClass(@NonNull Class<?> clazz) {
+    public synchronized void unregisterFromClass(@NonNull Class<?> clazz) {
         jcRegistry.unregisterFromClass(clazz);
     }
 
+    /**
+     * Unregisters all commands registered for the supplied type.
+     *
+     * @param type The type whose annotated methods to unregister.
+     */
+    public synchronized void unregisterFromType(@NonNull Class<?> type) {
+        jcRegistry.unregisterFromType(type);
+    }
+
     /**
      * Unregisters a command directly instead of from an object or class.
      * 
      * @param command The command to unregister directly.
      */
-    public void unregisterDirectly(@NonNull JcCommand command) {
+    public synchronized void unregisterDirectly(@NonNull JcCommand command) {
         jcRegistry.unregisterDirectly(command);
     }
 
+    /**
+     * Unregisters the commands of all weakly registered objects that have been
+     * garbage collected.
+     *
+     * @return The number of collected objects whose commands were unregistered.
+     */
+    public synchronized int expungeCollectedObjects() {
+        return jcRegistry.expungeCollectedObjects();
+    }
+
+    /**
+     * Makes the registry read-only and repacks its commands into their most
+     * compact form.
+     *
+     * @return A report comparing the estimated memory use of the registry before
+     *         and after freezing it.
+     * @throws IllegalStateException If the registry is already frozen.
+     * @see JcRegistry#freeze()
+     */
+    public synchronized FootprintReport freeze() throws IllegalStateException {
+        return jcRegistry.freeze();
+    }
+
     /**
      * Returns the command mapped to the given command name.
      *
@@ -158,6 +944,18 @@ public class JavaCommander {
         return jcRegistry.getCommand(commandName);
     }
 
+    /**
+     * Returns the command mapped to the given command name or, if there is none,
+     * the command whose names are the only ones starting with the given
+     * abbreviation.
+     *
+     * @param abbreviation The full or abbreviated name of the command to find.
+     * @return An Optional containing the command - or not.
+     */
+    public Optional<JcCommand> getCommandByAbbreviation(@NonNull String abbreviation) {
+        return jcRegistry.getCommandByAbbreviation(abbreviation);
+    }
+
     /**
      * Gets all registered JcCommands.
      *
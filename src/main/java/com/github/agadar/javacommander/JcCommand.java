@@ -2,11 +2,19 @@ package com.github.agadar.javacommander;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.*;
-import java.util.AbstractMap.SimpleEntry;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
 
 import com.github.agadar.javacommander.exception.CommandInvocationException;
+import com.github.agadar.javacommander.exception.CommandTimeoutException;
+import com.github.agadar.javacommander.misc.RadixTree;
 
 import lombok.Getter;
 import lombok.NonNull;
@@ -21,30 +29,24 @@ import lombok.extern.slf4j.Slf4j;
 public class JcCommand {
 
     /**
-     * Names of the command. The first entry is the primary name. The other entries
-     * are synonyms.
+     * The number of characters of a returned stream's elements after which they
+     * are forwarded to the output's sink.
      */
-    @Getter
-    private final List<String> names;
+    private static final int STREAM_CHUNK_SIZE = 8192;
 
     /**
-     * This command's options, in order of the method's parameters
+     * The names, description, options and method of this command, which may be
+     * shared with commands that invoke the same method on other objects.
      */
-    private final List<JcCommandOption<?>> options;
-
-    /**
-     * This command's options, each option mapped to each of its names.
-     */
-    private final Map<String, JcCommandOption<?>> optionNamesToOptions;
-    private final Method methodToInvoke;
+    @Getter
+    private final JcCommandMetadata metadata;
 
     /**
-     * The object to invoke the above method on. Holds a class if this command calls
-     * a static method.
+     * The object to invoke the method on. Holds a class if this command calls a
+     * static method, a {@link WeakTarget} if the object is weakly referenced, or a
+     * {@link ContextTarget} if the object is resolved when the command is executed.
      */
     private final Object objectToInvokeOn;
-    @Getter
-    private final String description;
 
     /**
      * Constructor.
@@ -61,22 +63,94 @@ public class JcCommand {
      */
     public JcCommand(@NonNull Collection<String> names, String description, Collection<JcCommandOption<?>> options,
             @NonNull Method methodToInvoke, @NonNull Object objectToInvokeOn) throws IllegalArgumentException {
+        this(Collections.emptyList(), names, description, options, methodToInvoke, objectToInvokeOn, false);
+    }
 
-        this.names = names.stream().filter(name -> name != null && !name.isEmpty()).collect(Collectors.toList());
+    /**
+     * Constructor for a sub-command.
+     *
+     * @param parents          Names of the commands this command is a sub-command
+     *                         of, outermost first.
+     * @param names            Names of the command. The first entry is the primary
+     *                         name. The other entries are synonyms.
+     * @param description      A description of the command.
+     * @param options          This command's options, in order of the method's
+     *                         parameters.
+     * @param methodToInvoke   The method to invoke when this command is executed.
+     * @param objectToInvokeOn The object to invoke the above method on. Holds a
+     *                         class if this command calls a static method.
+     * @throws IllegalArgumentException If one of the parameter values is invalid.
+     */
+    public JcCommand(@NonNull Collection<String> parents, @NonNull Collection<String> names, String description,
+            Collection<JcCommandOption<?>> options, @NonNull Method methodToInvoke, @NonNull Object objectToInvokeOn)
+            throws IllegalArgumentException {
+        this(parents, names, description, options, methodToInvoke, objectToInvokeOn, false);
+    }
 
-        if (this.names.isEmpty()) {
-            throw new IllegalArgumentException("'names' should not be empty");
-        }
-        this.description = (description == null) ? "" : description;
-        this.options = (options == null) ? new ArrayList<>()
-                : options.stream().filter(Objects::nonNull).collect(Collectors.toList());
-        this.methodToInvoke = methodToInvoke;
+    /**
+     * Constructor for a sub-command that may match its option names ignoring case.
+     *
+     * @param parents          Names of the commands this command is a sub-command
+     *                         of, outermost first.
+     * @param names            Names of the command. The first entry is the primary
+     *                         name. The other entries are synonyms.
+     * @param description      A description of the command.
+     * @param options          This command's options, in order of the method's
+     *                         parameters.
+     * @param methodToInvoke   The method to invoke when this command is executed.
+     * @param objectToInvokeOn The object to invoke the above method on. Holds a
+     *                         class if this command calls a static method.
+     * @param ignoreCase       Whether option names are matched ignoring case.
+     * @throws IllegalArgumentException If one of the parameter values is invalid,
+     *                                  or if two options share a name.
+     */
+    public JcCommand(@NonNull Collection<String> parents, @NonNull Collection<String> names, String description,
+            Collection<JcCommandOption<?>> options, @NonNull Method methodToInvoke, @NonNull Object objectToInvokeOn,
+            boolean ignoreCase) throws IllegalArgumentException {
+        this(new JcCommandMetadata(parents, names, description, options, methodToInvoke, ignoreCase),
+                objectToInvokeOn);
+    }
+
+    /**
+     * Constructor for a command that binds shared metadata to the object to invoke
+     * its method on.
+     *
+     * @param metadata         The names, description, options and method of the
+     *                         command.
+     * @param objectToInvokeOn The object to invoke the method on. Holds a class if
+     *                         the method is static.
+     */
+    public JcCommand(@NonNull JcCommandMetadata metadata, @NonNull Object objectToInvokeOn) {
+        this.metadata = metadata;
         this.objectToInvokeOn = objectToInvokeOn;
+    }
 
-        optionNamesToOptions = this.options.stream()
-                .flatMap(option -> option.getNames().stream()
-                        .map(name -> new SimpleEntry<String, JcCommandOption<?>>(name, option)))
-                .collect(Collectors.toMap(SimpleEntry::getKey, SimpleEntry::getValue));
+    /**
+     * Names of the commands this command is a sub-command of, outermost first.
+     *
+     * @return The names of this command's parents.
+     */
+    public List<String> getParents() {
+        return metadata.parents;
+    }
+
+    /**
+     * Names of the command. The first entry is the primary name. The other entries
+     * are synonyms.
+     *
+     * @return The names of this command.
+     */
+    public List<String> getNames() {
+        return metadata.names;
+    }
+
+    /**
+     * A description of the command.
+     *
+     * @return A description of the command.
+     */
+    public String getDescription() {
+        return metadata.description;
     }
 
     /**
@@ -85,7 +159,29 @@ public class JcCommand {
      * @return This command's primary name.
      */
     public String getPrimaryName() {
-        return names.get(0);
+        return metadata.names.get(0);
+    }
+
+    /**
+     * Returns whether option names are matched ignoring case.
+     *
+     * @return Whether option names are matched ignoring case.
+     */
+    public boolean isIgnoreCase() {
+        return metadata.isIgnoreCase();
+    }
+
+    /**
+     * Returns the names of this command's parents followed by its primary name,
+     * separated by spaces, e.g. 'remote add'.
+     *
+     * @return This command's full name.
+     */
+    public String getFullName() {
+        if (metadata.parents.isEmpty()) {
+            return getPrimaryName();
+        }
+        return String.join(" ", metadata.parents) + " " + getPrimaryName();
     }
 
     /**
@@ -95,7 +191,7 @@ public class JcCommand {
      * @return Whether this command has an option with the specified name.
      */
     public boolean hasOption(@NonNull String optionName) {
-        return optionNamesToOptions.containsKey(optionName);
+        return metadata.optionNamesToOptions.containsKey(optionName);
     }
 
     /**
@@ -106,6 +202,7 @@ public class JcCommand {
      * @return The option at the bound index, or empty if this has no options.
      */
     public Optional<JcCommandOption<?>> getOptionByIndex(int index) {
+        var options = metadata.options;
         if (options.size() < 1) {
             return Optional.empty();
         }
@@ -119,10 +216,30 @@ public class JcCommand {
      * @return The supplied option, or empty if this has no option with that name.
      */
     public Optional<JcCommandOption<?>> getOptionByName(@NonNull String optionName) {
-        if (optionNamesToOptions.containsKey(optionName)) {
-            return Optional.of(optionNamesToOptions.get(optionName));
+        return Optional.ofNullable(metadata.optionNamesToOptions.get(optionName));
+    }
+
+    /**
+     * Returns this command's option names closest to the given unknown option
+     * name, closest first.
+     *
+     * @param optionName     The unknown option name.
+     * @param maxSuggestions The maximum number of names to return.
+     * @return The closest option names, if any are close enough.
+     */
+    public List<String> suggestOptionNames(@NonNull String optionName, int maxSuggestions) {
+        var closestKeys = metadata.optionNamesToOptions.closestKeys(optionName,
+                RadixTree.typoTolerance(optionName.length()), maxSuggestions);
+        if (!isIgnoreCase()) {
+            return closestKeys;
         }
-        return Optional.empty();
+        // Suggest option names as they were declared rather than folded.
+        var closestNames = new ArrayList<String>(closestKeys.size());
+        for (String key : closestKeys) {
+            var option = metadata.optionNamesToOptions.get(key);
+            closestNames.add(option.getNames().stream().filter(key::equalsIgnoreCase).findFirst().orElse(key));
+        }
+        return closestNames;
     }
 
     /**
@@ -131,7 +248,7 @@ public class JcCommand {
      * @return The number of names this instance has.
      */
     public int numberOfOptions() {
-        return options.size();
+        return metadata.options.size();
     }
 
     /**
@@ -142,12 +259,13 @@ public class JcCommand {
      *         or null.
      */
     public int indexOfOption(@NonNull JcCommandOption<?> option) {
-        return options.indexOf(option);
+        return metadata.options.indexOf(option);
     }
 
     @Override
     public int hashCode() {
         int hash = 5;
+        hash = 23 * hash + this.getParents().hashCode();
         hash = 23 * hash + this.getPrimaryName().hashCode();
         return hash;
     }
@@ -163,22 +281,200 @@ public class JcCommand {
         if (getClass() != obj.getClass()) {
             return false;
         }
-        return (this.getPrimaryName().equals(((JcCommand) obj).getPrimaryName()));
+        var other = (JcCommand) obj;
+        return this.getParents().equals(other.getParents()) && this.getPrimaryName().equals(other.getPrimaryName());
     }
 
     /**
      * Invokes this command, using the supplied array of arguments.
      *
      * @param args The arguments.
+     * @return The value returned by this command's method, or null if it returns
+     *         nothing.
      * @throws CommandInvocationException If invoking the command failed.
      */
-    public void invoke(Object... args) throws CommandInvocationException {
+    public Object invoke(Object... args) throws CommandInvocationException {
+        return invoke(ExecutionContext.EMPTY, args);
+    }
+
+    /**
+     * Invokes this command in the context, using the supplied array of arguments.
+     * If this command was registered by type, the object to invoke it on is
+     * resolved from the context. If the method has a parameter of type
+     * {@link CommandOutput}, it is passed the context's output buffer, or else a
+     * buffer that is printed to System.out once the method returns. If the
+     * command's invocations are limited by a bulkhead, this waits for the
+     * command's turn first. If the command has a timeout, or the context a
+     * deadline, the calling thread is interrupted once the time is up.
+     * <p>
+     * If the method returns a {@link java.util.stream.Stream} or an
+     * {@link Iterator}, its elements are not collected, but written to the
+     * context's output buffer one per line as they are produced, or else printed
+     * to System.out. They are forwarded in chunks if the buffer has a sink, see
+     * {@link CommandOutput#CommandOutput(Appendable)}, so that memory use does
+     * not grow with the number of elements; a buffer without a sink keeps them
+     * all. The stream is closed once it is consumed.
+     *
+     * @param context The context to invoke this command in.
+     * @param args    The arguments, one for each option.
+     * @return The value returned by this command's method, or null if it returns
+     *         nothing or a stream or iterator whose elements were written.
+     * @throws CommandInvocationException If invoking the command failed, if it
+     *                                    was rejected by its bulkhead, or if it
+     *                                    did not finish in time, in which case
+     *                                    it is a CommandTimeoutException.
+     */
+    public Object invoke(@NonNull ExecutionContext context, Object... args) throws CommandInvocationException {
+        Object object;
+        if (objectToInvokeOn instanceof ContextTarget) {
+            var targetType = ((ContextTarget) objectToInvokeOn).type;
+            object = context.getTargetResolver().resolveTarget(targetType);
+            if (!targetType.isInstance(object)) {
+                throw new CommandInvocationException(this, new IllegalStateException(
+                        String.format("The context resolved no object of type '%s'", targetType.getName())));
+            }
+        } else {
+            object = resolveObjectToInvokeOn();
+            if (object == null) {
+                throw new CommandInvocationException(this,
+                        new IllegalStateException("The object to invoke this command on was garbage collected"));
+            }
+        }
+        var output = context.getOutput();
+        if (metadata.hasOutputParameter()) {
+            if (output == null) {
+                output = new CommandOutput(System.out);
+            }
+            args = insertOutput(args, output);
+        }
+        long timeoutNanos = timeoutNanos(context);
+        if (timeoutNanos <= 0) {
+            throw new CommandTimeoutException(this, null);
+        }
+        var watchdog = timeoutNanos < Long.MAX_VALUE ? Watchdog.start(timeoutNanos) : null;
+        var bulkhead = metadata.bulkhead;
+        boolean acquired = false;
+        boolean releasedByStage = false;
+        try {
+            if (bulkhead != null) {
+                try {
+                    bulkhead.acquire(this);
+                } catch (CommandInvocationException ex) {
+                    throw timedOutOr(watchdog, ex);
+                }
+                acquired = true;
+            }
+            Object result;
+            try {
+                result = metadata.methodToInvoke.invoke(object instanceof Class ? null : object, args);
+            } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
+                var failure = timedOutOr(watchdog, new CommandInvocationException(this, ex));
+                if (!(failure instanceof CommandTimeoutException)) {
+                    log.error("An error occured while invoking this command", ex);
+                }
+                throw failure;
+            }
+            if (result instanceof BaseStream || result instanceof Iterator) {
+                try {
+                    writeElements(result, output != null ? output : new CommandOutput(System.out));
+                } catch (Exception ex) {
+                    throw timedOutOr(watchdog, new CommandInvocationException(this, ex));
+                }
+                result = null;
+            }
+            if (watchdog != null && watchdog.stop()) {
+                throw new CommandTimeoutException(this, null);
+            }
+
+            // A stage has to complete before the deadline as well, and a command that
+            // returns one keeps its place in the bulkhead until it completes.
+            if (watchdog != null && result instanceof CompletionStage) {
+                result = watchdog.bound((CompletionStage<?>) result, () -> new CommandTimeoutException(this, null));
+            }
+            if (acquired && result instanceof CompletionStage) {
+                ((CompletionStage<?>) result).whenComplete((value, failure) -> bulkhead.release());
+                releasedByStage = true;
+            }
+            return result;
+        } finally {
+            if (watchdog != null) {
+                watchdog.stop();
+            }
+            if (acquired && !releasedByStage) {
+                bulkhead.release();
+            }
+            if (output != context.getOutput()) {
+                output.flush();
+            }
+        }
+    }
+
+    /**
+     * Writes the elements of a stream or iterator returned by the method to the
+     * output, one per line, as they are produced. If the output has a sink, it is
+     * flushed whenever it holds a chunk of elements, and once all elements are
+     * written. Stops early if the thread is interrupted. Closes the stream
+     * afterwards, as well as an iterator that can be closed.
+     */
+    private static void writeElements(Object result, CommandOutput output) throws Exception {
         try {
-            methodToInvoke.invoke(objectToInvokeOn instanceof Class ? null : objectToInvokeOn, args);
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
-            log.error("An error occured while invoking this command", ex);
-            throw new CommandInvocationException(this, ex);
+            var elements = result instanceof BaseStream ? ((BaseStream<?, ?>) result).iterator()
+                    : (Iterator<?>) result;
+            while (elements.hasNext() && !Thread.currentThread().isInterrupted()) {
+                output.println(elements.next());
+                if (output.length() >= STREAM_CHUNK_SIZE) {
+                    output.flush();
+                }
+            }
+            output.flush();
+        } finally {
+            if (result instanceof AutoCloseable) {
+                ((AutoCloseable) result).close();
+            }
+        }
+    }
+
+    /**
+     * Returns the time this command has to finish in, which is the shortest of its
+     * own timeout and the time left until the context's deadline.
+     *
+     * @return The time in nanoseconds, or Long.MAX_VALUE if there is no limit.
+     */
+    private long timeoutNanos(ExecutionContext context) {
+        long remainingNanos = context.remainingNanos();
+        if (metadata.timeoutMillis > 0) {
+            return Math.min(remainingNanos, TimeUnit.MILLISECONDS.toNanos(metadata.timeoutMillis));
         }
+        return remainingNanos;
+    }
+
+    /**
+     * Returns a CommandTimeoutException caused by the failure if the watchdog
+     * expired, as the failure is then likely the result of the interrupt.
+     * Otherwise, returns the failure itself.
+     */
+    private CommandInvocationException timedOutOr(Watchdog watchdog, CommandInvocationException failure) {
+        if (watchdog != null && watchdog.stop()) {
+            return new CommandTimeoutException(this, failure.getCause());
+        }
+        return failure;
+    }
+
+    private Object[] insertOutput(Object[] args, CommandOutput output) {
+        var outputParameterIndexes = metadata.outputParameterIndexes;
+        var allArgs = new Object[args.length + outputParameterIndexes.length];
+        int argsIndex = 0;
+        int outputIndex = 0;
+
+        for (int i = 0; i < allArgs.length; i++) {
+            if (outputIndex < outputParameterIndexes.length && outputParameterIndexes[outputIndex] == i) {
+                allArgs[i] = output;
+                outputIndex++;
+            } else if (argsIndex < args.length) {
+                allArgs[i] = args[argsIndex++];
+            }
+        }
+        return allArgs;
     }
 
     /**
@@ -189,6 +485,23 @@ public class JcCommand {
      * @return True if the above is the case, otherwise false.
      */
     public boolean isMyObject(Object object) {
-        return this.objectToInvokeOn == object;
+        return resolveObjectToInvokeOn() == object;
+    }
+
+    /**
+     * Returns the object (or class) this command will invoke a method on when
+     * invoked, or the {@link WeakTarget} or {@link ContextTarget} standing in for
+     * it. Unlike the object itself, the latter are safe to use as keys without
+     * keeping the object alive.
+     *
+     * @return The object (or class) this command invokes a method on, or a weak
+     *         reference to it.
+     */
+    Object getObjectToInvokeOn() {
+        return objectToInvokeOn;
+    }
+
+    private Object resolveObjectToInvokeOn() {
+        return objectToInvokeOn instanceof WeakTarget ? ((WeakTarget) objectToInvokeOn).get() : objectToInvokeOn;
     }
 }
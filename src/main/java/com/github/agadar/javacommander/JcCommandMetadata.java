@@ -0,0 +1,293 @@
+package com.github.agadar.javacommander;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.github.agadar.javacommander.misc.RadixTree;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The part of a command that does not depend on the object it is invoked on:
+ * its names, description, options and method. Immutable, so that one instance
+ * can be shared by the commands of every object of the same class. The only
+ * state that changes is that of the bulkhead, if any, which therefore limits
+ * the invocations of the commands of all those objects together.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public final class JcCommandMetadata {
+
+    /**
+     * Names of the commands this command is a sub-command of, outermost first.
+     */
+    @Getter
+    final List<String> parents;
+
+    /**
+     * Names of the command. The first entry is the primary name. The other entries
+     * are synonyms.
+     */
+    @Getter
+    final List<String> names;
+
+    /**
+     * A description of the command.
+     */
+    @Getter
+    final String description;
+
+    /**
+     * This command's options, in order of the method's parameters.
+     */
+    @Getter
+    final List<JcCommandOption<?>> options;
+
+    /**
+     * This command's options, each option mapped to each of its names. Also used
+     * for finding the names closest to unknown ones. If option names are matched
+     * ignoring case, the names are folded once when the metadata is created.
+     */
+    final RadixTree<JcCommandOption<?>> optionNamesToOptions;
+
+    /**
+     * The method to invoke when the command is executed.
+     */
+    @Getter
+    final Method methodToInvoke;
+
+    /**
+     * The indexes of the method's parameters of type {@link CommandOutput}, which
+     * are passed the output buffer rather than an option's value. Never modified.
+     */
+    final int[] outputParameterIndexes;
+
+    /**
+     * Names of the resources this command reads.
+     */
+    @Getter
+    final Set<String> reads;
+
+    /**
+     * Names of the resources this command writes.
+     */
+    @Getter
+    final Set<String> writes;
+
+    /**
+     * The index of the option whose value is the command's partition key, or -1
+     * if the command has none.
+     */
+    final int partitionKeyIndex;
+
+    /**
+     * The bulkhead limiting the concurrent invocations of the command, or null if
+     * they are not limited.
+     */
+    final Bulkhead bulkhead;
+
+    /**
+     * The time in milliseconds the command has to finish in, or 0 if it may run
+     * for as long as it takes.
+     */
+    @Getter
+    final long timeoutMillis;
+
+    /**
+     * Constructor.
+     *
+     * @param parents        Names of the commands this command is a sub-command of,
+     *                       outermost first.
+     * @param names          Names of the command. The first entry is the primary
+     *                       name. The other entries are synonyms.
+     * @param description    A description of the command.
+     * @param options        This command's options, in order of the method's
+     *                       parameters.
+     * @param methodToInvoke The method to invoke when the command is executed.
+     * @param ignoreCase     Whether option names are matched ignoring case.
+     * @throws IllegalArgumentException If one of the parameter values is invalid,
+     *                                  or if two options share a name.
+     */
+    public JcCommandMetadata(@NonNull Collection<String> parents, @NonNull Collection<String> names,
+            String description, Collection<JcCommandOption<?>> options, @NonNull Method methodToInvoke,
+            boolean ignoreCase) throws IllegalArgumentException {
+        this(parents, names, description, options, methodToInvoke, ignoreCase, List.of(), List.of(), null, 0);
+    }
+
+    /**
+     * Constructor for a command that declares the resources it reads and writes.
+     *
+     * @param parents        Names of the commands this command is a sub-command of,
+     *                       outermost first.
+     * @param names          Names of the command. The first entry is the primary
+     *                       name. The other entries are synonyms.
+     * @param description    A description of the command.
+     * @param options        This command's options, in order of the method's
+     *                       parameters.
+     * @param methodToInvoke The method to invoke when the command is executed.
+     * @param ignoreCase     Whether option names are matched ignoring case.
+     * @param reads          Names of the resources the command reads.
+     * @param writes         Names of the resources the command writes.
+     * @param bulkhead       The bulkhead limiting the concurrent invocations of
+     *                       the command, or null if they are not limited.
+     * @param timeoutMillis  The time in milliseconds the command has to finish
+     *                       in, or 0 if it may run for as long as it takes.
+     * @throws IllegalArgumentException If one of the parameter values is invalid,
+     *                                  or if two options share a name.
+     */
+    public JcCommandMetadata(@NonNull Collection<String> parents, @NonNull Collection<String> names,
+            String description, Collection<JcCommandOption<?>> options, @NonNull Method methodToInvoke,
+            boolean ignoreCase, @NonNull Collection<String> reads, @NonNull Collection<String> writes,
+            Bulkhead bulkhead, long timeoutMillis) throws IllegalArgumentException {
+
+        if (parents.stream().anyMatch(parent -> parent == null || parent.isEmpty() || parent.indexOf(' ') >= 0)) {
+            throw new IllegalArgumentException("'parents' should not contain empty names or names with spaces");
+        }
+        this.parents = List.copyOf(parents);
+        this.names = Collections.unmodifiableList(
+                names.stream().filter(name -> name != null && !name.isEmpty()).collect(Collectors.toList()));
+
+        if (this.names.isEmpty()) {
+            throw new IllegalArgumentException("'names' should not be empty");
+        }
+        this.description = (description == null) ? "" : description;
+        this.options = Collections.unmodifiableList((options == null) ? new ArrayList<>()
+                : options.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+        this.methodToInvoke = methodToInvoke;
+        this.outputParameterIndexes = findOutputParameterIndexes(methodToInvoke);
+
+        if (reads.stream().anyMatch(resource -> resource == null || resource.isEmpty())
+                || writes.stream().anyMatch(resource -> resource == null || resource.isEmpty())) {
+            throw new IllegalArgumentException("'reads' and 'writes' should not contain empty names");
+        }
+        this.reads = Set.copyOf(reads);
+        this.writes = Set.copyOf(writes);
+
+        var partitionKeyIndexes = IntStream.range(0, this.options.size())
+                .filter(index -> this.options.get(index).isPartitionKey()).toArray();
+        if (partitionKeyIndexes.length > 1) {
+            throw new IllegalArgumentException("Only one option should be the partition key");
+        }
+        this.partitionKeyIndex = partitionKeyIndexes.length > 0 ? partitionKeyIndexes[0] : -1;
+        this.bulkhead = bulkhead;
+
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("'timeoutMillis' should not be negative");
+        }
+        this.timeoutMillis = timeoutMillis;
+
+        optionNamesToOptions = new RadixTree<>(ignoreCase);
+        for (var option : this.options) {
+            for (String name : option.getNames()) {
+                var previousOption = optionNamesToOptions.put(name, option);
+                if (previousOption != null && previousOption != option) {
+                    throw new IllegalArgumentException(String.format("Option name '%s' is not unique", name));
+                }
+            }
+        }
+    }
+
+    /**
+     * Constructor for a compacted copy of metadata, used when freezing a registry.
+     *
+     * @param metadata  The metadata to copy.
+     * @param compactor The compactor providing shared names, values and options.
+     */
+    JcCommandMetadata(JcCommandMetadata metadata, Compactor compactor) {
+        this.parents = compactor.strings(metadata.parents);
+        this.names = compactor.strings(metadata.names);
+        this.description = compactor.string(metadata.description);
+        this.methodToInvoke = metadata.methodToInvoke;
+        this.outputParameterIndexes = metadata.outputParameterIndexes;
+        this.reads = metadata.reads;
+        this.writes = metadata.writes;
+        this.partitionKeyIndex = metadata.partitionKeyIndex;
+        this.bulkhead = metadata.bulkhead;
+        this.timeoutMillis = metadata.timeoutMillis;
+
+        var compactedOptions = new JcCommandOption<?>[metadata.options.size()];
+        for (int i = 0; i < compactedOptions.length; i++) {
+            compactedOptions[i] = compactor.option(metadata.options.get(i));
+        }
+        this.options = List.of(compactedOptions);
+
+        this.optionNamesToOptions = compactor.optionIndex(this.options, metadata.isIgnoreCase());
+    }
+
+    /**
+     * Returns whether option names are matched ignoring case.
+     *
+     * @return Whether option names are matched ignoring case.
+     */
+    public boolean isIgnoreCase() {
+        return optionNamesToOptions.isIgnoreCase();
+    }
+
+    /**
+     * Returns whether the method has a parameter of type {@link CommandOutput}.
+     *
+     * @return Whether the method writes to an output buffer.
+     */
+    public boolean hasOutputParameter() {
+        return outputParameterIndexes.length > 0;
+    }
+
+    /**
+     * Returns the bulkhead limiting the concurrent invocations of the command,
+     * whose occupancy can be monitored.
+     *
+     * @return An Optional containing the bulkhead - or not.
+     */
+    public Optional<Bulkhead> getBulkhead() {
+        return Optional.ofNullable(bulkhead);
+    }
+
+    /**
+     * Returns whether one of the command's options is its partition key.
+     *
+     * @return Whether the command has a partition key.
+     */
+    public boolean hasPartitionKey() {
+        return partitionKeyIndex >= 0;
+    }
+
+    /**
+     * Returns whether the command declares the resources it reads or writes.
+     *
+     * @return Whether the command declares any resources.
+     */
+    public boolean declaresResources() {
+        return !reads.isEmpty() || !writes.isEmpty();
+    }
+
+    /**
+     * Returns whether this command and the other command may not be executed
+     * concurrently, because one writes a resource the other reads or writes, or
+     * because either declares no resources at all.
+     *
+     * @param other The metadata of the other command.
+     * @return Whether the commands conflict.
+     */
+    public boolean conflictsWith(@NonNull JcCommandMetadata other) {
+        if (!declaresResources() || !other.declaresResources()) {
+            return true;
+        }
+        return !Collections.disjoint(writes, other.reads) || !Collections.disjoint(writes, other.writes)
+                || !Collections.disjoint(reads, other.writes);
+    }
+
+    private static int[] findOutputParameterIndexes(Method method) {
+        var parameterTypes = method.getParameterTypes();
+        return IntStream.range(0, parameterTypes.length)
+                .filter(index -> parameterTypes[index] == CommandOutput.class).toArray();
+    }
+}
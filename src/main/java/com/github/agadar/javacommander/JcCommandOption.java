@@ -1,5 +1,6 @@
 package com.github.agadar.javacommander;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -31,11 +32,13 @@ public class JcCommandOption<T> {
     /**
      * The parser used to parse a string to the option's type.
      */
+    @Getter
     private final Class<? extends OptionValueParser<T>> valueParserType;
 
     /**
      * The type of this option's underlying parameter.
      */
+    @Getter
     private final Class<T> parameterType;
 
     /**
@@ -59,6 +62,23 @@ public class JcCommandOption<T> {
     @Getter
     private final T flagValue;
 
+    /**
+     * The text this option's default value was parsed from, or null if it has
+     * none.
+     */
+    final String defaultValueText;
+
+    /**
+     * The text this option's flag value was parsed from, or null if it has none.
+     */
+    final String flagValueText;
+
+    /**
+     * Whether this option's value is the command's partition key.
+     */
+    @Getter
+    private final boolean partitionKey;
+
     /**
      * Constructor.
      *
@@ -82,6 +102,30 @@ public class JcCommandOption<T> {
     public JcCommandOption(@NonNull Collection<String> names, String description, @NonNull Class<T> parameterType,
             String defaultValue, String flagValue, Class<? extends OptionValueParser<T>> valueParserType)
             throws OptionValueParserException, IllegalArgumentException {
+        this(names, description, parameterType, defaultValue, flagValue, valueParserType, false);
+    }
+
+    /**
+     * Constructor for an option that may be its command's partition key.
+     *
+     * @param names           Names of the option. The first entry is its primary
+     *                        name. The other entries are synonyms.
+     * @param description     A description of the option.
+     * @param parameterType   The type of this option's underlying parameter.
+     * @param defaultValue    This option's default value.
+     * @param flagValue       This option's flag value.
+     * @param valueParserType The parser type used to parse a string to the option's
+     *                        type.
+     * @param partitionKey    Whether this option's value is the command's partition
+     *                        key.
+     * @throws IllegalArgumentException   If one of the parameter values is invalid.
+     * @throws OptionValueParserException If the option parser failed to parse the
+     *                                    default value if it has one, or when the
+     *                                    parser itself failed to be instantiated.
+     */
+    public JcCommandOption(@NonNull Collection<String> names, String description, @NonNull Class<T> parameterType,
+            String defaultValue, String flagValue, Class<? extends OptionValueParser<T>> valueParserType,
+            boolean partitionKey) throws OptionValueParserException, IllegalArgumentException {
 
         this.names = names.stream().filter(name -> name != null && !name.isEmpty()).collect(Collectors.toList());
 
@@ -93,6 +137,38 @@ public class JcCommandOption<T> {
         this.valueParserType = valueParserType;
         this.defaultValue = determineValue(defaultValue);
         this.flagValue = determineValue(flagValue);
+        this.defaultValueText = this.defaultValue == null ? null : defaultValue;
+        this.flagValueText = this.flagValue == null ? null : flagValue;
+        this.partitionKey = partitionKey;
+    }
+
+    /**
+     * Constructor for a compacted copy of an option, used when freezing a
+     * registry.
+     *
+     * @param option    The option to copy.
+     * @param compactor The compactor providing shared names and values.
+     */
+    JcCommandOption(JcCommandOption<T> option, Compactor compactor) {
+        this.names = compactor.strings(option.names);
+        this.description = compactor.string(option.description);
+        this.parameterType = option.parameterType;
+        this.valueParserType = option.valueParserType;
+        this.defaultValue = compactor.value(option.defaultValue);
+        this.flagValue = compactor.value(option.flagValue);
+        this.defaultValueText = compactor.string(option.defaultValueText);
+        this.flagValueText = compactor.string(option.flagValueText);
+        this.partitionKey = option.partitionKey;
+    }
+
+    /**
+     * Returns all fields of this option, for finding options that are equal in
+     * every respect.
+     *
+     * @return The fields of this option.
+     */
+    List<Object> getFields() {
+        return Arrays.asList(names, description, parameterType, valueParserType, defaultValue, flagValue, partitionKey);
     }
 
     /**
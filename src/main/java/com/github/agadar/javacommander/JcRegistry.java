@@ -1,45 +1,140 @@
 package com.github.agadar.javacommander;
 
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 import com.github.agadar.javacommander.annotation.parser.CommandAnnotationParser;
 import com.github.agadar.javacommander.exception.OptionAnnotationException;
 import com.github.agadar.javacommander.exception.OptionValueParserException;
+import com.github.agadar.javacommander.exception.UnknownCommandException;
+import com.github.agadar.javacommander.misc.Footprint;
+import com.github.agadar.javacommander.misc.FootprintReport;
 
 import lombok.NonNull;
 
 /**
  * Allows the registering and unregistering of objects containing functions
  * annotated with @Command and with parameters annotated with @Option.
+ * <p>
+ * A registry is not thread-safe. To change the commands while they are being
+ * executed, change a {@link #copy()} and publish it in place of the original,
+ * as {@link JavaCommander#updateRegistry(RegistryUpdate)} does.
  *
  * @author Agadar (https://github.com/Agadar/)
  */
 public class JcRegistry {
 
     /**
-     * The parsed commands, each command mapped to its primary name, in alphabetical
+     * The maximum number of collected objects to unregister at the start of each
+     * registration change, so that the costs are spread out.
+     */
+    private static final int EXPUNGE_BATCH_SIZE = 64;
+
+    /**
+     * The maximum number of suggestions to include when a command is not found.
+     */
+    private static final int MAX_SUGGESTIONS = 3;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * The source of registry versions, shared by all registries so that no two
+     * versions of any registries are equal.
+     */
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    /**
+     * The parsed commands, each command mapped to its full name, in alphabetical
      * order.
      */
-    private final Map<String, JcCommand> primaryNamesToCommands = new TreeMap<>();
+    private Map<String, JcCommand> fullNamesToCommands;
 
     /**
-     * The parsed commands, each command mapped to each of its names, in
-     * alphabetical order.
+     * The parsed commands, arranged as a tree of sub-commands with an index of the
+     * names at each level. Also supports lookups by unique name prefixes.
      */
-    private final Map<String, JcCommand> allNamesToCommands = new TreeMap<>();
+    private final CommandTree commandTree;
+
+    /**
+     * The parsed commands, grouped by the object (or class) they invoke their
+     * method on. Keyed by identity, so that unregistering an object only costs as
+     * much as the number of commands it contributed.
+     */
+    private Map<Object, List<JcCommand>> objectsToCommands = new IdentityHashMap<>();
+
+    /**
+     * The weak references to weakly registered objects, grouped by the objects'
+     * identity hash codes. Used to find the reference to an object without
+     * keeping the object itself as a key.
+     */
+    private Map<Integer, List<WeakTarget>> weakTargetsByIdentityHashCode = new HashMap<>();
+
+    /**
+     * The weak references to weakly registered objects that were garbage
+     * collected, and whose commands are still to be unregistered.
+     */
+    private final ReferenceQueue<Object> collectedObjects = new ReferenceQueue<>();
     private final CommandAnnotationParser commandAnnotationParser;
 
+    /**
+     * The compacted commands in alphabetical order of their full names, once this
+     * registry is frozen. Null until then.
+     */
+    private List<JcCommand> frozenCommands;
+
+    /**
+     * The version of this registry, renewed on each change to its commands.
+     */
+    private volatile long version = VERSIONS.incrementAndGet();
+
     public JcRegistry() {
         this(new CommandAnnotationParser());
     }
 
+    /**
+     * Constructor.
+     *
+     * @param ignoreCase Whether command and option names are matched ignoring
+     *                   case, so that e.g. 'bar', 'Bar' and 'BAR' all find the
+     *                   same command without registering each as a synonym.
+     */
+    public JcRegistry(boolean ignoreCase) {
+        this(new CommandAnnotationParser(ignoreCase));
+    }
+
+    /**
+     * Constructor. Command names are matched ignoring case if the parser parses
+     * commands whose option names are matched ignoring case.
+     *
+     * @param commandAnnotationParser The parser for annotated commands.
+     */
     public JcRegistry(@NonNull CommandAnnotationParser commandAnnotationParser) {
         this.commandAnnotationParser = commandAnnotationParser;
+        boolean ignoreCase = commandAnnotationParser.isIgnoreCase();
+        this.fullNamesToCommands = ignoreCase ? new TreeMap<>(String.CASE_INSENSITIVE_ORDER) : new TreeMap<>();
+        this.commandTree = new CommandTree(ignoreCase);
+    }
+
+    /**
+     * Returns whether command names are matched ignoring case.
+     *
+     * @return Whether command names are matched ignoring case.
+     */
+    public boolean isIgnoreCase() {
+        return commandAnnotationParser.isIgnoreCase();
     }
 
     /**
@@ -58,6 +153,38 @@ public class JcRegistry {
         registerDirectly(parsedCommands);
     }
 
+    /**
+     * Registers all annotated, public, non-static methods of the supplied object,
+     * while only weakly referencing the object. Once the object is garbage
+     * collected, its commands are unregistered during a later registration change
+     * or call to {@link #expungeCollectedObjects()}. Until then, invoking them
+     * fails with a CommandInvocationException.
+     *
+     * @param object The object containing annotated methods.
+     * @throws OptionAnnotationException  If a method's parameter is not properly
+     *                                    annotated with the @Option annotation.
+     * @throws OptionValueParserException If an option value parser failed to parse
+     *                                    a default value, or when the parser itself
+     *                                    failed to be instantiated.
+     */
+    public void registerFromObjectWeakly(@NonNull Object object)
+            throws OptionAnnotationException, OptionValueParserException {
+        checkNotFrozen();
+        var parsedCommands = commandAnnotationParser.parseFromObject(object);
+        var weakTarget = findWeakTarget(object);
+
+        if (weakTarget == null) {
+            weakTarget = new WeakTarget(object, collectedObjects);
+            weakTargetsByIdentityHashCode.computeIfAbsent(weakTarget.identityHashCode, hash -> new ArrayList<>(1))
+                    .add(weakTarget);
+        }
+        var weakCommands = new ArrayList<JcCommand>(parsedCommands.size());
+        for (var parsedCommand : parsedCommands) {
+            weakCommands.add(new JcCommand(parsedCommand.getMetadata(), weakTarget));
+        }
+        registerDirectly(weakCommands);
+    }
+
     /**
      * Registers all annotated, public, static methods of the supplied class.
      *
@@ -74,6 +201,31 @@ public class JcRegistry {
         registerDirectly(parsedCommands);
     }
 
+    /**
+     * Registers all annotated, public, non-static methods of the supplied type
+     * without an object to invoke them on. Instead, the object is resolved from the
+     * {@link ExecutionContext} each time one of the commands is executed. This
+     * registers the commands once for all objects of the type, rather than once
+     * per object.
+     *
+     * @param type The type containing annotated methods.
+     * @throws OptionAnnotationException  If a method's parameter is not properly
+     *                                    annotated with the @Option annotation.
+     * @throws OptionValueParserException If an option value parser failed to parse
+     *                                    a default value, or when the parser itself
+     *                                    failed to be instantiated.
+     */
+    public void registerFromType(@NonNull Class<?> type)
+            throws OptionAnnotationException, OptionValueParserException {
+        var parsedMetadata = commandAnnotationParser.parseMetadataFromType(type);
+        var contextTarget = ContextTarget.of(type);
+        var contextCommands = new ArrayList<JcCommand>(parsedMetadata.size());
+        for (var metadata : parsedMetadata) {
+            contextCommands.add(new JcCommand(metadata, contextTarget));
+        }
+        registerDirectly(contextCommands);
+    }
+
     /**
      * Registers commands directly instead of reading them from annotated objects or
      * classes.
@@ -81,11 +233,22 @@ public class JcRegistry {
      * @param jcCommands The commands to register directly.
      */
     public void registerDirectly(@NonNull Collection<JcCommand> jcCommands) {
+        checkNotFrozen();
+        expungeCollectedObjects(EXPUNGE_BATCH_SIZE);
+
         for (var jcCommand : jcCommands) {
-            for (String name : jcCommand.getNames()) {
-                allNamesToCommands.put(name, jcCommand);
+            var replacedCommand = fullNamesToCommands.get(jcCommand.getFullName());
+            if (replacedCommand == jcCommand) {
+                continue;
             }
-            primaryNamesToCommands.put(jcCommand.getPrimaryName(), jcCommand);
+            if (replacedCommand != null) {
+                unregisterDirectly(replacedCommand);
+            }
+            commandTree.add(jcCommand);
+            fullNamesToCommands.put(jcCommand.getFullName(), jcCommand);
+            version = VERSIONS.incrementAndGet();
+            objectsToCommands.computeIfAbsent(jcCommand.getObjectToInvokeOn(), object -> new ArrayList<>(2))
+                    .add(jcCommand);
         }
     }
 
@@ -95,10 +258,28 @@ public class JcRegistry {
      * @param object The object whose annotated methods to unregister.
      */
     public void unregisterFromObject(@NonNull Object object) {
-        var commandsToRemove = primaryNamesToCommands.values().stream()
-                .filter((command) -> command.isMyObject(object))
-                .collect(Collectors.toList());
-        commandsToRemove.forEach(this::unregisterDirectly);
+        checkNotFrozen();
+        expungeCollectedObjects(EXPUNGE_BATCH_SIZE);
+        unregisterCommandsOf(object);
+
+        var weakTarget = findWeakTarget(object);
+        if (weakTarget != null) {
+            unregisterCommandsOf(weakTarget);
+            weakTarget.clear();
+        }
+    }
+
+    /**
+     * Unregisters all annotated methods of each of the supplied objects (or
+     * classes).
+     *
+     * @param objects The objects (or classes) whose annotated methods to
+     *                unregister.
+     */
+    public void unregisterAll(@NonNull Collection<?> objects) {
+        for (var object : objects) {
+            unregisterFromObject(object);
+        }
     }
 
     /**
@@ -110,27 +291,290 @@ public class JcRegistry {
         unregisterFromObject(clazz);
     }
 
+    /**
+     * Unregisters all commands registered through
+     * {@link #registerFromType(Class)} for the supplied type.
+     *
+     * @param type The type whose annotated methods to unregister.
+     */
+    public void unregisterFromType(@NonNull Class<?> type) {
+        checkNotFrozen();
+        expungeCollectedObjects(EXPUNGE_BATCH_SIZE);
+        unregisterCommandsOf(ContextTarget.of(type));
+    }
+
     /**
      * Unregisters a command directly instead of from an object or class.
      * 
      * @param command The command to unregister directly.
      */
     public void unregisterDirectly(@NonNull JcCommand command) {
-        primaryNamesToCommands.remove(command.getPrimaryName());
-        for (String name : command.getNames()) {
-            allNamesToCommands.remove(name);
+        checkNotFrozen();
+        var registeredCommand = fullNamesToCommands.get(command.getFullName());
+        if (registeredCommand == null) {
+            return;
+        }
+        removeFromNameIndexes(registeredCommand);
+        var object = registeredCommand.getObjectToInvokeOn();
+        var commandsOfObject = objectsToCommands.get(object);
+        commandsOfObject.remove(registeredCommand);
+
+        if (commandsOfObject.isEmpty()) {
+            objectsToCommands.remove(object);
+            if (object instanceof WeakTarget) {
+                forgetWeakTarget((WeakTarget) object);
+            }
+        }
+    }
+
+    /**
+     * Unregisters the commands of all weakly registered objects that have been
+     * garbage collected since the last time this was done. This also happens in
+     * small batches whenever commands are registered or unregistered, but calling
+     * this periodically keeps registries that rarely change clean as well.
+     *
+     * @return The number of collected objects whose commands were unregistered.
+     */
+    public int expungeCollectedObjects() {
+        checkNotFrozen();
+        return expungeCollectedObjects(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Makes this registry read-only and repacks its commands into their most
+     * compact form, for registries with very many commands that no longer change.
+     * Equal names, descriptions and default values are shared between commands,
+     * the lists of names and options are replaced by immutable lists of the exact
+     * size, and the indexes that are only needed for changing the registry are
+     * dropped. Commands are replaced by compacted copies, so commands retrieved
+     * before freezing are no longer the registered instances afterwards.
+     * <p>
+     * Any registration change after this throws an IllegalStateException. Weakly
+     * registered objects that are collected after this are no longer unregistered;
+     * their commands fail with a CommandInvocationException instead.
+     *
+     * @return A report comparing the estimated memory use of this registry before
+     *         and after freezing it.
+     * @throws IllegalStateException If this registry is already frozen.
+     */
+    public FootprintReport freeze() throws IllegalStateException {
+        checkNotFrozen();
+        expungeCollectedObjects(Integer.MAX_VALUE);
+        var before = estimateFootprint();
+
+        var compactor = new Compactor();
+        var compactedCommands = new IdentityHashMap<JcCommand, JcCommand>();
+        var commands = new JcCommand[fullNamesToCommands.size()];
+        int index = 0;
+
+        for (var command : fullNamesToCommands.values()) {
+            var compactedCommand = compactor.command(command);
+            compactedCommands.put(command, compactedCommand);
+            commands[index++] = compactedCommand;
+        }
+        // Synonyms lead to the same node, which may thus already hold the copy.
+        commandTree.compact(compactor, command -> compactedCommands.getOrDefault(command, command));
+        frozenCommands = List.of(commands);
+        fullNamesToCommands = Map.of();
+        objectsToCommands = Map.of();
+        weakTargetsByIdentityHashCode = Map.of();
+        version = VERSIONS.incrementAndGet();
+
+        return new FootprintReport(before, estimateFootprint());
+    }
+
+    /**
+     * Returns a new, unfrozen registry with the same commands and annotation
+     * parser as this one, which can be changed without affecting this one. The
+     * commands themselves are shared, except that weakly registered objects are
+     * referenced anew so that the copy unregisters them by itself once they are
+     * collected. Commands of weakly registered objects that were already
+     * collected are left out.
+     * <p>
+     * Copying takes time in proportion to the number of commands, so prefer
+     * making several changes to one copy over copying for each change.
+     *
+     * @return The copy.
+     */
+    public JcRegistry copy() {
+        var copy = new JcRegistry(commandAnnotationParser);
+        var copiedWeakTargets = new IdentityHashMap<WeakTarget, WeakTarget>();
+        var commands = new ArrayList<JcCommand>(getCommands().size());
+
+        for (var command : getCommands()) {
+            var object = command.getObjectToInvokeOn();
+            if (!(object instanceof WeakTarget)) {
+                commands.add(command);
+                continue;
+            }
+            var weakTarget = (WeakTarget) object;
+            var referent = weakTarget.get();
+            if (referent == null) {
+                continue;
+            }
+            var copiedWeakTarget = copiedWeakTargets.get(weakTarget);
+            if (copiedWeakTarget == null) {
+                copiedWeakTarget = new WeakTarget(referent, copy.collectedObjects);
+                copiedWeakTargets.put(weakTarget, copiedWeakTarget);
+                copy.weakTargetsByIdentityHashCode
+                        .computeIfAbsent(copiedWeakTarget.identityHashCode, hash -> new ArrayList<>(1))
+                        .add(copiedWeakTarget);
+            }
+            commands.add(new JcCommand(command.getMetadata(), copiedWeakTarget));
+        }
+        copy.registerDirectly(commands);
+        return copy;
+    }
+
+    /**
+     * Returns the version of this registry. The version changes whenever commands
+     * are registered or unregistered, or the registry is frozen, and is never
+     * equal to a version of another registry. Anything derived from the commands,
+     * such as resolved commands, remains valid for as long as the version is the
+     * same.
+     *
+     * @return The version of this registry.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns a fingerprint of the commands in this registry, derived from their
+     * names, options, the text of their default and flag values, and the methods
+     * they invoke. Unlike
+     * the version, the fingerprint is the same for registries with the same
+     * commands, also across runs of the application, so that anything derived
+     * from the commands and saved, such as a compiled script, can be checked for
+     * whether it is still valid when it is loaded again.
+     *
+     * @return The fingerprint of the commands in this registry.
+     */
+    public long getFingerprint() {
+        long hash = hash(FNV_OFFSET_BASIS, String.valueOf(isIgnoreCase()));
+        for (var command : sortedCommands()) {
+            var metadata = command.getMetadata();
+            hash = hash(hash, command.getFullName());
+            hash = hash(hash, String.join(" ", command.getNames()));
+            hash = hash(hash, metadata.methodToInvoke.toGenericString());
+            for (var option : metadata.options) {
+                hash = hash(hash, String.join(" ", option.getNames()));
+                hash = hash(hash, option.getParameterType().getName());
+                hash = hash(hash, String.valueOf(option.getValueParserType()));
+                hash = hash(hash, String.valueOf(option.defaultValueText));
+                hash = hash(hash, String.valueOf(option.flagValueText));
+            }
         }
+        return hash;
     }
 
     /**
-     * Returns the command mapped to the given command name.
+     * Returns the commands in the order of their full names, which is the same
+     * for registries with the same commands.
+     *
+     * @return The commands, ordered by full name.
+     */
+    List<JcCommand> sortedCommands() {
+        var commands = new ArrayList<>(getCommands());
+        commands.sort(Comparator.comparing(JcCommand::getFullName));
+        return commands;
+    }
+
+    /**
+     * Mixes the characters of the string, and a separator after them, into the
+     * 64-bit FNV-1a hash.
+     */
+    private static long hash(long hash, String string) {
+        for (int i = 0; i < string.length(); i++) {
+            hash = (hash ^ string.charAt(i)) * FNV_PRIME;
+        }
+        return (hash ^ 0xFFFF) * FNV_PRIME;
+    }
+
+    /**
+     * Returns whether this registry is frozen, i.e. read-only.
+     *
+     * @return Whether this registry is frozen.
+     * @see #freeze()
+     */
+    public boolean isFrozen() {
+        return frozenCommands != null;
+    }
+
+    /**
+     * Estimates the memory used by this registry's commands and indexes, not
+     * counting the objects the commands are invoked on.
+     *
+     * @return The estimate.
+     */
+    public Footprint estimateFootprint() {
+        Set<Object> targets = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (var command : getCommands()) {
+            targets.add(command.getObjectToInvokeOn());
+        }
+        return Footprint.of(this, object -> object == commandAnnotationParser
+                || targets.contains(object) && !(object instanceof WeakTarget || object instanceof ContextTarget));
+    }
+
+    /**
+     * Returns the command mapped to the given command name. Sub-commands are found
+     * by their parents' names and their own name separated by spaces, e.g. 'remote
+     * add'.
      *
      * @param commandName The name of the command to find.
      * @return An Optional containing the command - or not.
      */
     public Optional<JcCommand> getCommand(@NonNull String commandName) {
-        var jcCommand = allNamesToCommands.get(commandName);
-        return jcCommand != null ? Optional.of(jcCommand) : Optional.empty();
+        return Optional.ofNullable(commandTree.get(commandName));
+    }
+
+    /**
+     * Returns the command mapped to the given command name or, if there is none,
+     * the command whose names are the only ones starting with the given
+     * abbreviation. E.g. 'stat' finds 'statistics' as long as no other command
+     * has a name starting with 'stat'.
+     *
+     * @param abbreviation The full or abbreviated name of the command to find.
+     * @return An Optional containing the command - or not, if none was found or
+     *         the abbreviation is ambiguous.
+     */
+    public Optional<JcCommand> getCommandByAbbreviation(@NonNull String abbreviation) {
+        return Optional.ofNullable(commandTree.resolve(List.of(abbreviation)));
+    }
+
+    /**
+     * Finds the command that the argument tokens start with. Descends into
+     * sub-commands for as long as the next token names one, so that 'remote add
+     * origin' finds the sub-command 'add' of 'remote'. The first token may be a
+     * unique abbreviation of a name, but sub-command names must be given in full.
+     * If the tokens name a group of sub-commands that is not a command itself, the
+     * closest command above it is found instead.
+     *
+     * @param argumentTokens The argument tokens, starting with the command name.
+     * @return The command. Its parents' names and its own name are the first
+     *         {@code getParents().size() + 1} tokens.
+     * @throws UnknownCommandException If the tokens do not start with a command.
+     */
+    public JcCommand resolveCommand(@NonNull List<String> argumentTokens) throws UnknownCommandException {
+        var command = commandTree.resolve(argumentTokens);
+        if (command == null) {
+            throw commandTree.unknownCommand(argumentTokens, MAX_SUGGESTIONS);
+        }
+        return command;
+    }
+
+    /**
+     * Performs the action for each top-level command name starting with the prefix, in
+     * alphabetical order. The name handed to the action is a reused buffer that is
+     * only valid during the call; use toString() to keep it. If names are matched
+     * ignoring case, the names are folded to lower case.
+     *
+     * @param prefix The prefix of the command names to visit.
+     * @param action The action to perform for each command name and its command.
+     */
+    public void forEachCommandWithPrefix(@NonNull String prefix,
+            @NonNull BiConsumer<? super CharSequence, ? super JcCommand> action) {
+        commandTree.forEachWithPrefix(prefix, action);
     }
 
     /**
@@ -139,7 +583,19 @@ public class JcRegistry {
      * @return All registered JcCommands.
      */
     public Collection<JcCommand> getCommands() {
-        return Collections.unmodifiableCollection(primaryNamesToCommands.values());
+        return isFrozen() ? frozenCommands : Collections.unmodifiableCollection(fullNamesToCommands.values());
+    }
+
+    /**
+     * Returns the top-level command names closest to the given unknown command
+     * name, closest first.
+     *
+     * @param commandName    The unknown command name.
+     * @param maxSuggestions The maximum number of names to return.
+     * @return The closest command names, if any are close enough.
+     */
+    public List<String> suggestCommandNames(@NonNull String commandName, int maxSuggestions) {
+        return commandTree.closestNames(commandName, maxSuggestions);
     }
 
     /**
@@ -149,7 +605,61 @@ public class JcRegistry {
      * @return Whether the command name is known by this registry.
      */
     public boolean hasCommand(@NonNull String commandName) {
-        return allNamesToCommands.containsKey(commandName);
+        return commandTree.get(commandName) != null;
+    }
+
+    private void checkNotFrozen() {
+        if (isFrozen()) {
+            throw new IllegalStateException("This registry is frozen");
+        }
+    }
+
+    private int expungeCollectedObjects(int maxObjects) {
+        int expunged = 0;
+        WeakTarget collectedObject;
+
+        while (expunged < maxObjects && (collectedObject = (WeakTarget) collectedObjects.poll()) != null) {
+            unregisterCommandsOf(collectedObject);
+            expunged++;
+        }
+        return expunged;
+    }
+
+    private void unregisterCommandsOf(Object objectToInvokeOn) {
+        var commandsToRemove = objectsToCommands.remove(objectToInvokeOn);
+        if (commandsToRemove != null) {
+            commandsToRemove.forEach(this::removeFromNameIndexes);
+        }
+        if (objectToInvokeOn instanceof WeakTarget) {
+            forgetWeakTarget((WeakTarget) objectToInvokeOn);
+        }
+    }
+
+    private WeakTarget findWeakTarget(Object object) {
+        var weakTargets = weakTargetsByIdentityHashCode.get(System.identityHashCode(object));
+        if (weakTargets != null) {
+            for (var weakTarget : weakTargets) {
+                if (weakTarget.get() == object) {
+                    return weakTarget;
+                }
+            }
+        }
+        return null;
     }
 
+    private void forgetWeakTarget(WeakTarget weakTarget) {
+        var weakTargets = weakTargetsByIdentityHashCode.get(weakTarget.identityHashCode);
+        if (weakTargets != null) {
+            weakTargets.remove(weakTarget);
+            if (weakTargets.isEmpty()) {
+                weakTargetsByIdentityHashCode.remove(weakTarget.identityHashCode);
+            }
+        }
+    }
+
+    private void removeFromNameIndexes(JcCommand command) {
+        fullNamesToCommands.remove(command.getFullName());
+        commandTree.remove(command);
+        version = VERSIONS.incrementAndGet();
+    }
 }
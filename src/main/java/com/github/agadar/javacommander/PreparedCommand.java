@@ -0,0 +1,381 @@
+package com.github.agadar.javacommander;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.github.agadar.javacommander.exception.JavaCommanderException;
+import com.github.agadar.javacommander.exception.NoValueForOptionException;
+import com.github.agadar.javacommander.exception.StaleScriptException;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * A command whose options are given placeholders instead of some of their
+ * values, e.g. 'transfer -from ? -to ? -amount ?', so that the command can be
+ * executed repeatedly with different values without tokenizing its input or
+ * looking up its name and options again. The command is found and the values
+ * that are given are parsed once, by {@link JavaCommander#prepare(String)}. The
+ * values of the placeholders are then bound by their index, starting at 0 for
+ * the first placeholder, before each execution.
+ * <p>
+ * Values bound through the primitive setters, e.g. {@link #bind(int, long)},
+ * are kept unboxed until the command is executed. As commands are invoked
+ * through reflection, they are boxed once per execution then.
+ * <p>
+ * Bound values are kept between executions, so that only the values that
+ * change need to be bound again. A prepared command is not thread-safe, and is
+ * only valid for as long as the registry it was prepared against is not
+ * changed.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public final class PreparedCommand {
+
+    /**
+     * The token that stands for a value that is bound later.
+     */
+    public static final String PLACEHOLDER = "?";
+
+    private static final byte UNBOUND = 0;
+    private static final byte PRIMITIVE = 1;
+    private static final byte OBJECT = 2;
+
+    /**
+     * The input the command was prepared from.
+     */
+    @Getter
+    private final String source;
+
+    private final JavaCommander javaCommander;
+
+    /**
+     * The version of the registry the command was prepared against.
+     */
+    private final long registryVersion;
+
+    private final JcCommand command;
+
+    /**
+     * The arguments parsed for the command, with null in place of placeholders.
+     */
+    private final Object[] args;
+
+    /**
+     * For each placeholder, the index of the option it is for.
+     */
+    private final int[] optionIndices;
+
+    /**
+     * For each placeholder, the primitive type of its option, or null if the
+     * option's type is neither primitive nor a wrapper type.
+     */
+    private final Class<?>[] primitiveTypes;
+
+    /**
+     * For each placeholder, whether and how its value is bound.
+     */
+    private final byte[] states;
+
+    /**
+     * The values bound through the primitive setters. Floating point values are
+     * kept as their bits, and booleans as 0 or 1.
+     */
+    private final long[] primitiveValues;
+
+    /**
+     * The values bound as objects.
+     */
+    private final Object[] objectValues;
+
+    /**
+     * Constructor.
+     *
+     * @param source             The input the command was prepared from.
+     * @param javaCommander      The JavaCommander instance that prepared it.
+     * @param registryVersion    The version of the registry it was prepared
+     *                           against.
+     * @param command            The command.
+     * @param args               The arguments parsed for the command, with null
+     *                           in place of placeholders.
+     * @param placeholderIndices For each placeholder, the index of the option it
+     *                           is for.
+     */
+    PreparedCommand(String source, JavaCommander javaCommander, long registryVersion, JcCommand command,
+            Object[] args, List<Integer> placeholderIndices) {
+        this.source = source;
+        this.javaCommander = javaCommander;
+        this.registryVersion = registryVersion;
+        this.command = command;
+        this.args = args;
+        int placeholders = placeholderIndices.size();
+        this.optionIndices = new int[placeholders];
+        this.primitiveTypes = new Class<?>[placeholders];
+        for (int i = 0; i < placeholders; i++) {
+            optionIndices[i] = placeholderIndices.get(i);
+            primitiveTypes[i] = unwrap(parameterType(i));
+        }
+        this.states = new byte[placeholders];
+        this.primitiveValues = new long[placeholders];
+        this.objectValues = new Object[placeholders];
+    }
+
+    /**
+     * Returns the number of placeholders.
+     *
+     * @return The number of placeholders.
+     */
+    public int getPlaceholderCount() {
+        return optionIndices.length;
+    }
+
+    /**
+     * Returns whether the registry was changed since the command was prepared, in
+     * which case it can no longer be executed.
+     *
+     * @return Whether the prepared command is stale.
+     */
+    public boolean isStale() {
+        return javaCommander.getRegistry().getVersion() != registryVersion;
+    }
+
+    /**
+     * Binds an integral value to a placeholder whose option is of an integral or
+     * floating point type.
+     *
+     * @param index The index of the placeholder.
+     * @param value The value.
+     * @return This prepared command.
+     * @throws IndexOutOfBoundsException If there is no placeholder at the index.
+     * @throws IllegalArgumentException  If the option's type cannot hold the
+     *                                   value.
+     */
+    public PreparedCommand bind(int index, long value) throws IllegalArgumentException {
+        var type = primitiveTypes[Objects.checkIndex(index, states.length)];
+        if (type == long.class || type == int.class && value == (int) value
+                || type == short.class && value == (short) value || type == byte.class && value == (byte) value) {
+            return bindPrimitive(index, value);
+        }
+        if (type == double.class || type == float.class) {
+            return bindPrimitive(index, Double.doubleToRawLongBits(value));
+        }
+        if (type != null) {
+            throw mismatch(index);
+        }
+        return bindObject(index, Long.valueOf(value));
+    }
+
+    /**
+     * Binds a floating point value to a placeholder whose option is of a floating
+     * point type.
+     *
+     * @param index The index of the placeholder.
+     * @param value The value.
+     * @return This prepared command.
+     * @throws IndexOutOfBoundsException If there is no placeholder at the index.
+     * @throws IllegalArgumentException  If the option's type cannot hold the
+     *                                   value.
+     */
+    public PreparedCommand bind(int index, double value) throws IllegalArgumentException {
+        var type = primitiveTypes[Objects.checkIndex(index, states.length)];
+        if (type == double.class || type == float.class) {
+            return bindPrimitive(index, Double.doubleToRawLongBits(value));
+        }
+        if (type != null) {
+            throw mismatch(index);
+        }
+        return bindObject(index, Double.valueOf(value));
+    }
+
+    /**
+     * Binds a boolean value to a placeholder whose option is of the boolean type.
+     *
+     * @param index The index of the placeholder.
+     * @param value The value.
+     * @return This prepared command.
+     * @throws IndexOutOfBoundsException If there is no placeholder at the index.
+     * @throws IllegalArgumentException  If the option's type cannot hold the
+     *                                   value.
+     */
+    public PreparedCommand bind(int index, boolean value) throws IllegalArgumentException {
+        var type = primitiveTypes[Objects.checkIndex(index, states.length)];
+        if (type == boolean.class) {
+            return bindPrimitive(index, value ? 1 : 0);
+        }
+        if (type != null) {
+            throw mismatch(index);
+        }
+        return bindObject(index, Boolean.valueOf(value));
+    }
+
+    /**
+     * Binds a value to a placeholder.
+     *
+     * @param index The index of the placeholder.
+     * @param value The value, which may be null if the option's type is not
+     *              primitive.
+     * @return This prepared command.
+     * @throws IndexOutOfBoundsException If there is no placeholder at the index.
+     * @throws IllegalArgumentException  If the value is not of the option's type.
+     */
+    public PreparedCommand bind(int index, Object value) throws IllegalArgumentException {
+        Objects.checkIndex(index, states.length);
+        return bindObject(index, value);
+    }
+
+    /**
+     * Unbinds the values of all placeholders.
+     */
+    public void clearBindings() {
+        for (int i = 0; i < states.length; i++) {
+            states[i] = UNBOUND;
+            objectValues[i] = null;
+        }
+    }
+
+    /**
+     * Executes the command with the values bound to the placeholders.
+     *
+     * @return The value returned by the command, or null if it returns nothing.
+     * @throws JavaCommanderException If the prepared command is stale, if a
+     *                                placeholder has no value bound to it, or if
+     *                                invoking the command failed.
+     * @see #execute(ExecutionContext)
+     */
+    public Object execute() throws JavaCommanderException {
+        return execute(ExecutionContext.EMPTY);
+    }
+
+    /**
+     * Executes the command in the context, with the values bound to the
+     * placeholders.
+     *
+     * @param context The context to execute the command in.
+     * @return The value returned by the command, or null if it returns nothing.
+     * @throws StaleScriptException      If the registry was changed since the
+     *                                   command was prepared.
+     * @throws NoValueForOptionException If a placeholder has no value bound to
+     *                                   it.
+     * @throws JavaCommanderException    If invoking the command failed,
+     *                                   containing a cause.
+     */
+    public Object execute(@NonNull ExecutionContext context) throws JavaCommanderException {
+        if (isStale()) {
+            throw new StaleScriptException(source);
+        }
+        var finalArgs = args.clone();
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == UNBOUND) {
+                throw new NoValueForOptionException(command, command.getOptionByIndex(optionIndices[i]).get());
+            }
+            finalArgs[optionIndices[i]] = states[i] == OBJECT ? objectValues[i] : box(i);
+        }
+        return command.invoke(context, finalArgs);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private PreparedCommand bindPrimitive(int index, long value) {
+        primitiveValues[index] = value;
+        objectValues[index] = null;
+        states[index] = PRIMITIVE;
+        return this;
+    }
+
+    private PreparedCommand bindObject(int index, Object value) throws IllegalArgumentException {
+        var type = parameterType(index);
+        if (value == null ? type.isPrimitive() : !wrap(type).isInstance(value)) {
+            throw mismatch(index);
+        }
+        objectValues[index] = value;
+        states[index] = OBJECT;
+        return this;
+    }
+
+    private IllegalArgumentException mismatch(int index) {
+        return new IllegalArgumentException(String.format("Placeholder %d of '%s' should be given a value of type '%s'",
+                index, source, parameterType(index).getSimpleName()));
+    }
+
+    private Class<?> parameterType(int index) {
+        return command.getOptionByIndex(optionIndices[index]).get().getParameterType();
+    }
+
+    /**
+     * Boxes the value bound through a primitive setter to its option's type.
+     */
+    private Object box(int index) {
+        var type = primitiveTypes[index];
+        long value = primitiveValues[index];
+        if (type == long.class) {
+            return value;
+        } else if (type == int.class) {
+            return (int) value;
+        } else if (type == short.class) {
+            return (short) value;
+        } else if (type == byte.class) {
+            return (byte) value;
+        } else if (type == double.class) {
+            return Double.longBitsToDouble(value);
+        } else if (type == float.class) {
+            return (float) Double.longBitsToDouble(value);
+        }
+        return value != 0;
+    }
+
+    /**
+     * Returns the primitive type of a primitive or wrapper type, or null if the
+     * type is neither.
+     */
+    private static Class<?> unwrap(Class<?> type) {
+        if (type.isPrimitive()) {
+            return type;
+        }
+        if (type == Long.class) {
+            return long.class;
+        } else if (type == Integer.class) {
+            return int.class;
+        } else if (type == Short.class) {
+            return short.class;
+        } else if (type == Byte.class) {
+            return byte.class;
+        } else if (type == Double.class) {
+            return double.class;
+        } else if (type == Float.class) {
+            return float.class;
+        } else if (type == Boolean.class) {
+            return boolean.class;
+        } else if (type == Character.class) {
+            return char.class;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the wrapper type of a primitive type, or the type itself.
+     */
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == long.class) {
+            return Long.class;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        }
+        return Character.class;
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.agadar.javacommander;
+
+import com.github.agadar.javacommander.exception.JavaCommanderException;
+
+/**
+ * A change to the commands of a registry, applied by
+ * {@link JavaCommander#updateRegistry(RegistryUpdate)} to a copy of the
+ * registry before the copy replaces it.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+@FunctionalInterface
+public interface RegistryUpdate {
+
+    /**
+     * Changes the commands of the registry.
+     *
+     * @param registry The registry to change.
+     * @throws JavaCommanderException If something went wrong, containing a cause.
+     *                                The registry is then discarded.
+     */
+    void update(JcRegistry registry) throws JavaCommanderException;
+}
@@ -0,0 +1,274 @@
+package com.github.agadar.javacommander;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Saves compiled scripts to files in a compact binary format, and loads them
+ * again, so that a script need not be tokenized and parsed again on the next
+ * run of the application. A file holds the fingerprint of the registry the
+ * script was compiled against, the script's source, and for each command the
+ * index of the command in the registry's commands ordered by full name,
+ * followed by its parsed arguments. All numbers are big-endian.
+ * <p>
+ * Arguments are saved as a tag followed by their value, and only if they are
+ * null, strings, or primitive values; scripts with arguments of other types are
+ * not saved. Files are loaded by mapping them into memory.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+@Slf4j
+final class ScriptFile {
+
+    /**
+     * The first bytes of every file, 'JCS' followed by the format's version.
+     */
+    private static final int MAGIC = 0x4A435301;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte SHORT = 4;
+    private static final byte BYTE = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte FLOAT = 7;
+    private static final byte BOOLEAN = 8;
+    private static final byte CHAR = 9;
+
+    private ScriptFile() {
+    }
+
+    /**
+     * Loads the script compiled from the source from the file.
+     *
+     * @param file          The file to load the script from.
+     * @param source        The source the script should be compiled from.
+     * @param javaCommander The JavaCommander instance to run the script with.
+     * @param registry      The registry to resolve the script's commands in.
+     * @return The loaded script, or null if the file does not exist, is corrupt,
+     *         or holds another script or a script compiled against other
+     *         commands.
+     */
+    static CompiledScript read(Path file, String source, JavaCommander javaCommander, JcRegistry registry) {
+        long registryVersion = registry.getVersion();
+        ByteBuffer buffer;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            log.warn("Failed to read compiled script file '{}'", file, ex);
+            return null;
+        }
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getLong() != registry.getFingerprint()
+                    || !source.equals(readString(buffer))) {
+                return null;
+            }
+            var commands = registry.sortedCommands();
+            // Each group takes at least 4 bytes, and each command at least 8.
+            int groupCount = readCount(buffer, buffer.remaining() / 4);
+            var boundGroups = new ArrayList<List<BoundCommand>>(groupCount);
+            for (int g = 0; g < groupCount; g++) {
+                int commandCount = readCount(buffer, buffer.remaining() / 8);
+                var group = new ArrayList<BoundCommand>(commandCount);
+                for (int i = 0; i < commandCount; i++) {
+                    var command = commands.get(readCount(buffer, commands.size() - 1));
+                    int argCount = buffer.getInt();
+                    if (argCount != command.numberOfOptions()) {
+                        return null;
+                    }
+                    var args = new Object[argCount];
+                    for (int j = 0; j < args.length; j++) {
+                        args[j] = readValue(buffer);
+                    }
+                    group.add(new BoundCommand(command, args));
+                }
+                boundGroups.add(List.copyOf(group));
+            }
+            if (buffer.hasRemaining()) {
+                return null;
+            }
+            return new CompiledScript(source, javaCommander, registryVersion, List.copyOf(boundGroups));
+        } catch (RuntimeException ex) {
+            // E.g. a buffer underflow, or a count out of bounds.
+            log.debug("Compiled script file '{}' is corrupt", file, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Saves the script to the file, replacing the file in one step, so that it is
+     * never read while half written.
+     *
+     * @param file     The file to save the script to.
+     * @param script   The script.
+     * @param registry The registry the script was compiled against.
+     * @return Whether the script was saved, which it is not if it has arguments
+     *         that cannot be saved, or if writing the file failed.
+     */
+    static boolean write(Path file, CompiledScript script, JcRegistry registry) {
+        var commandIds = new HashMap<JcCommand, Integer>();
+        var commands = registry.sortedCommands();
+        for (int i = 0; i < commands.size(); i++) {
+            commandIds.put(commands.get(i), i);
+        }
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeLong(registry.getFingerprint());
+            writeString(out, script.getSource());
+            out.writeInt(script.boundGroups.size());
+            for (var group : script.boundGroups) {
+                out.writeInt(group.size());
+                for (var boundCommand : group) {
+                    var commandId = commandIds.get(boundCommand.command);
+                    if (commandId == null) {
+                        return false;
+                    }
+                    out.writeInt(commandId);
+                    out.writeInt(boundCommand.args.length);
+                    for (var arg : boundCommand.args) {
+                        if (!writeValue(out, arg)) {
+                            log.debug("Script '{}' has an argument of type '{}', which is not saved",
+                                    script.getSource(), arg.getClass().getName());
+                            return false;
+                        }
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        var directory = file.toAbsolutePath().getParent();
+        Path temporaryFile = null;
+        try {
+            temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            Files.write(temporaryFile, bytes.toByteArray());
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException ex) {
+            log.warn("Failed to write compiled script file '{}'", file, ex);
+            if (temporaryFile != null) {
+                try {
+                    Files.deleteIfExists(temporaryFile);
+                } catch (IOException deleteEx) {
+                    ex.addSuppressed(deleteEx);
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Reads a count or index, which should not be negative or exceed the maximum.
+     *
+     * @throws IllegalArgumentException If the count is out of bounds, in which
+     *                                  case the file is corrupt.
+     */
+    private static int readCount(ByteBuffer buffer, int max) throws IllegalArgumentException {
+        int count = buffer.getInt();
+        if (count < 0 || count > max) {
+            throw new IllegalArgumentException(String.format("Count %d is not between 0 and %d", count, max));
+        }
+        return count;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        var bytes = new byte[readCount(buffer, buffer.remaining())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        var bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static Object readValue(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        switch (tag) {
+        case NULL:
+            return null;
+        case STRING:
+            return readString(buffer);
+        case INT:
+            return buffer.getInt();
+        case LONG:
+            return buffer.getLong();
+        case SHORT:
+            return buffer.getShort();
+        case BYTE:
+            return buffer.get();
+        case DOUBLE:
+            return buffer.getDouble();
+        case FLOAT:
+            return buffer.getFloat();
+        case BOOLEAN:
+            return buffer.get() != 0;
+        case CHAR:
+            return buffer.getChar();
+        default:
+            throw new IllegalArgumentException("Unknown argument tag " + tag);
+        }
+    }
+
+    /**
+     * Writes the tag and value of the argument, if it is of a type that can be
+     * saved.
+     *
+     * @return Whether the argument was written.
+     */
+    private static boolean writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Character) {
+            out.writeByte(CHAR);
+            out.writeChar((Character) value);
+        } else {
+            return false;
+        }
+        return true;
+    }
+}
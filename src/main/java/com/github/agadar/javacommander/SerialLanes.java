@@ -0,0 +1,200 @@
+package com.github.agadar.javacommander;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs tasks in a fixed number of serial lanes on top of an executor. The tasks
+ * of a lane are run one at a time, in the order they were submitted in, while
+ * the lanes run concurrently with each other. Tasks are mapped to lanes by key,
+ * so that tasks with equal keys keep their order.
+ * <p>
+ * Each lane is a lock-free queue that any thread may add tasks to, and that is
+ * drained by one worker at a time. The worker is borrowed from the executor
+ * while the lane has tasks, rather than a thread being dedicated to each lane.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+@Slf4j
+final class SerialLanes {
+
+    private final Executor executor;
+    private final Lane[] lanes;
+
+    /**
+     * Makes tasks spanning several lanes be added to all of their lanes at once,
+     * so that they keep the same order in each lane.
+     */
+    private final Object multiLaneLock = new Object();
+
+    /**
+     * Constructor.
+     *
+     * @param executor  The executor to run the lanes' workers on.
+     * @param laneCount The number of lanes.
+     * @throws IllegalArgumentException If the number of lanes is not positive.
+     */
+    SerialLanes(Executor executor, int laneCount) throws IllegalArgumentException {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("'laneCount' should be positive");
+        }
+        this.executor = executor;
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane();
+        }
+    }
+
+    /**
+     * Returns the index of the lane that tasks with the key are run in.
+     *
+     * @param key The key, which may be null.
+     * @return The index of the key's lane.
+     */
+    int laneOf(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    /**
+     * Runs the task in the lane once the tasks submitted to the lane before it
+     * have finished. A task that returns a stage that has not completed yet holds
+     * up the lane until the stage completes.
+     *
+     * @param lane The index of the lane.
+     * @param task The task, which should not throw.
+     * @throws RejectedExecutionException If the executor rejected the lane's
+     *                                    worker, in which case the task is not
+     *                                    run.
+     */
+    void execute(int lane, Supplier<? extends CompletionStage<?>> task) throws RejectedExecutionException {
+        lanes[lane].submit(task);
+    }
+
+    /**
+     * Runs the task once the tasks submitted before it to each of the lanes have
+     * finished, holding up all of the lanes until the task has finished. The task
+     * is added to all of the lanes at once, so that the tasks spanning several
+     * lanes are run in the same order in each lane, and never wait for each
+     * other in a cycle.
+     *
+     * @param laneIndices The indices of the lanes, without duplicates.
+     * @param task        The task, which should not throw.
+     * @throws RejectedExecutionException If the executor rejected a lane's
+     *                                    worker, in which case the task is not
+     *                                    run.
+     */
+    void execute(int[] laneIndices, Supplier<? extends CompletionStage<?>> task) throws RejectedExecutionException {
+        if (laneIndices.length == 1) {
+            execute(laneIndices[0], task);
+            return;
+        }
+        var arrivals = new AtomicInteger(laneIndices.length);
+        var finished = new CompletableFuture<Void>();
+        Supplier<CompletionStage<?>> laneTask = () -> {
+            if (arrivals.decrementAndGet() != 0 || finished.isDone()) {
+                return finished;
+            }
+            try {
+                var stage = task.get();
+                if (stage == null) {
+                    finished.complete(null);
+                } else {
+                    stage.whenComplete((value, failure) -> finished.complete(null));
+                }
+            } catch (RuntimeException ex) {
+                finished.complete(null);
+                throw ex;
+            }
+            return finished;
+        };
+        synchronized (multiLaneLock) {
+            for (int lane : laneIndices) {
+                try {
+                    lanes[lane].submit(laneTask);
+                } catch (RuntimeException ex) {
+                    // Let the lanes the task was added to already go on.
+                    finished.complete(null);
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    /**
+     * A serial lane, whose worker runs while the lane's queue is not empty.
+     */
+    private final class Lane implements Runnable {
+
+        private final ConcurrentLinkedQueue<Supplier<? extends CompletionStage<?>>> tasks =
+                new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private void submit(Supplier<? extends CompletionStage<?>> task) {
+            tasks.offer(task);
+            try {
+                schedule();
+            } catch (RuntimeException ex) {
+                tasks.remove(task);
+                throw ex;
+            }
+        }
+
+        /**
+         * Starts the worker if there are tasks and no worker is running.
+         */
+        private void schedule() {
+            if (!tasks.isEmpty() && draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RuntimeException ex) {
+                    draining.set(false);
+                    throw ex;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            do {
+                Supplier<? extends CompletionStage<?>> task;
+                while ((task = tasks.poll()) != null) {
+                    CompletionStage<?> stage;
+                    try {
+                        stage = task.get();
+                    } catch (RuntimeException ex) {
+                        log.error("A task of a serial lane failed", ex);
+                        continue;
+                    }
+                    if (stage != null && !(stage instanceof CompletableFuture
+                            && ((CompletableFuture<?>) stage).isDone())) {
+                        stage.whenComplete((value, failure) -> resume());
+                        return;
+                    }
+                }
+                draining.set(false);
+
+                // Tasks may have been added after the last poll, while still draining.
+            } while (!tasks.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        /**
+         * Continues draining on the executor, after a task's stage completed.
+         */
+        private void resume() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException ex) {
+                run();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.agadar.javacommander;
+
+import java.util.List;
+
+import lombok.NonNull;
+
+/**
+ * Resolves the object to invoke a command on when the command is executed, for
+ * commands registered by type through {@link JcRegistry#registerFromType(Class)}.
+ * E.g. a server can register a handler class once and resolve the handler of
+ * the session executing a command, instead of registering a handler object per
+ * session.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+@FunctionalInterface
+public interface TargetResolver {
+
+    /**
+     * Returns the object to invoke a command on.
+     *
+     * @param targetType The type the command was registered from.
+     * @return An instance of the type, or null if there is none.
+     */
+    Object resolveTarget(Class<?> targetType);
+
+    /**
+     * Returns a resolver that resolves each type to the first of the targets that
+     * is an instance of it.
+     *
+     * @param targets The objects to invoke commands on.
+     * @return The resolver.
+     */
+    static TargetResolver of(@NonNull Object... targets) {
+        var targetList = List.of(targets);
+        return targetType -> {
+            for (var target : targetList) {
+                if (targetType.isInstance(target)) {
+                    return target;
+                }
+            }
+            return null;
+        };
+    }
+}
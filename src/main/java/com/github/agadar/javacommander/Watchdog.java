@@ -0,0 +1,120 @@
+package com.github.agadar.javacommander;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Interrupts the thread invoking a command once the command's time is up. The
+ * interrupt is cooperative: a command that does not respond to interrupts runs
+ * on, but is reported to have timed out once it finishes.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+final class Watchdog {
+
+    /**
+     * The timer shared by all watchdogs, running on a single daemon thread.
+     */
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private final Thread thread;
+    private final long deadlineNanos;
+    private ScheduledFuture<?> expiry;
+    private boolean stopped;
+    private boolean expired;
+
+    /**
+     * Whether the watchdog set the thread's interrupt status itself, rather than
+     * finding it set already, e.g. by a cancellation from elsewhere.
+     */
+    private boolean interrupted;
+
+    private Watchdog(Thread thread, long deadlineNanos) {
+        this.thread = thread;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Starts watching the calling thread.
+     *
+     * @param timeoutNanos The time after which the thread is interrupted.
+     * @return The watchdog, which should be stopped once the command finished.
+     */
+    static Watchdog start(long timeoutNanos) {
+        var watchdog = new Watchdog(Thread.currentThread(), System.nanoTime() + timeoutNanos);
+        watchdog.expiry = TIMER.schedule(watchdog::expire, timeoutNanos, TimeUnit.NANOSECONDS);
+        return watchdog;
+    }
+
+    private synchronized void expire() {
+        if (!stopped) {
+            expired = true;
+            if (!thread.isInterrupted()) {
+                interrupted = true;
+                thread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stops watching the thread. If the watchdog had interrupted the thread, the
+     * thread's interrupt status is cleared, so that the interrupt does not leak
+     * into the thread's next task. An interrupt status the watchdog found set
+     * already is left alone. Calling this again has no further effect.
+     *
+     * @return Whether the watchdog had expired.
+     */
+    synchronized boolean stop() {
+        if (!stopped) {
+            stopped = true;
+            expiry.cancel(false);
+            if (interrupted) {
+                Thread.interrupted();
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Returns a future completed like the stage, or else completed exceptionally
+     * once the watchdog's deadline passes, in which case the stage is cancelled if
+     * it is a future.
+     *
+     * @param stage     The stage returned by the command.
+     * @param onTimeout Supplies the exception to complete the future with if the
+     *                  deadline passes.
+     * @return The future.
+     */
+    CompletableFuture<Object> bound(CompletionStage<?> stage, Supplier<? extends Throwable> onTimeout) {
+        var bounded = new CompletableFuture<Object>();
+        var stageExpiry = TIMER.schedule(() -> {
+            if (bounded.completeExceptionally(onTimeout.get()) && stage instanceof Future) {
+                ((Future<?>) stage).cancel(true);
+            }
+        }, deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        stage.whenComplete((value, failure) -> {
+            stageExpiry.cancel(false);
+            if (failure != null) {
+                bounded.completeExceptionally(failure);
+            } else {
+                bounded.complete(value);
+            }
+        });
+        return bounded;
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        var timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            var thread = new Thread(runnable, "javacommander-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+}
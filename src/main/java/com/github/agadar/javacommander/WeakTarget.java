@@ -0,0 +1,32 @@
+package com.github.agadar.javacommander;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * A weak reference to an object registered to invoke commands on, which lets
+ * the object be garbage collected while its commands are still registered.
+ * Once collected, the reference is enqueued so that the registry can unregister
+ * the commands.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+final class WeakTarget extends WeakReference<Object> {
+
+    /**
+     * The identity hash code of the referent, which stays available after the
+     * referent was collected.
+     */
+    final int identityHashCode;
+
+    /**
+     * Constructor.
+     *
+     * @param referent The object to refer to.
+     * @param queue    The queue to enqueue this on once the object is collected.
+     */
+    WeakTarget(Object referent, ReferenceQueue<Object> queue) {
+        super(referent, queue);
+        this.identityHashCode = System.identityHashCode(referent);
+    }
+}
@@ -23,6 +23,15 @@ public @interface Command {
      */
     String[] names() default {};
 
+    /**
+     * Names of the commands this command is a sub-command of, outermost first.
+     * E.g. {"remote"} for a command invoked as 'remote add'. The parents do not
+     * need to be commands themselves.
+     *
+     * @return The names of this command's parents.
+     */
+    String[] parents() default {};
+
     /**
      * A description of the command.
      *
@@ -37,4 +46,58 @@ public @interface Command {
      * @return This command's options.
      */
     Option[] options() default {};
+
+    /**
+     * Names of the resources this command reads, e.g. {"users"}. Commands of the
+     * same input that only read the same resources may be executed concurrently.
+     * A command that declares neither reads nor writes is assumed to touch every
+     * resource, so that it is never executed concurrently with another command.
+     *
+     * @return The names of the resources this command reads.
+     */
+    String[] reads() default {};
+
+    /**
+     * Names of the resources this command writes. A command that writes a
+     * resource is executed after every earlier command of the same input that
+     * reads or writes it, and before every later one.
+     *
+     * @return The names of the resources this command writes.
+     */
+    String[] writes() default {};
+
+    /**
+     * The maximum number of invocations of this command running at once, or 0 if
+     * there is no maximum. Invocations beyond the maximum wait for a running one
+     * to finish.
+     *
+     * @return The maximum number of concurrent invocations of this command.
+     */
+    int maxConcurrency() default 0;
+
+    /**
+     * The maximum number of invocations of this command waiting for a running one
+     * to finish. Ignored if there is no maximum concurrency.
+     *
+     * @return The maximum number of waiting invocations of this command.
+     */
+    int queueCapacity() default Integer.MAX_VALUE;
+
+    /**
+     * What happens to an invocation of this command that finds the queue of
+     * waiting invocations full.
+     *
+     * @return What happens to an invocation that finds the queue full.
+     */
+    QueueFullPolicy queueFullPolicy() default QueueFullPolicy.REJECT;
+
+    /**
+     * The time in milliseconds this command has to finish in, or 0 if it may run
+     * for as long as it takes. A command still running after its timeout is
+     * interrupted, and fails with a CommandTimeoutException. If the command
+     * returns a stage, the stage has to complete within the timeout as well.
+     *
+     * @return The timeout of this command in milliseconds.
+     */
+    long timeoutMillis() default 0;
 }
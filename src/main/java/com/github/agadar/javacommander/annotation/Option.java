@@ -61,4 +61,15 @@ public @interface Option {
      */
     Class<? extends OptionValueParser<?>> valueParser() default NullOptionValueParser.class;
 
+    /**
+     * Whether this option's value is the command's partition key. Commands
+     * executed asynchronously whose partition keys are equal are executed one
+     * after the other, in the order they were submitted in, while commands with
+     * other keys may be executed concurrently. Only one option of a command may
+     * be its partition key.
+     *
+     * @return Whether this option is the partition key.
+     */
+    boolean partitionKey() default false;
+
 }
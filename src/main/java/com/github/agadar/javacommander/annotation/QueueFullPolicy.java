@@ -0,0 +1,20 @@
+package com.github.agadar.javacommander.annotation;
+
+/**
+ * What happens to an invocation of a command whose concurrency limit is reached
+ * and whose queue of waiting invocations is full.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public enum QueueFullPolicy {
+
+    /**
+     * The invocation fails right away.
+     */
+    REJECT,
+
+    /**
+     * The invoking thread waits until there is room in the queue.
+     */
+    WAIT
+}
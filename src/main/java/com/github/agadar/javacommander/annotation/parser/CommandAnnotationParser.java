@@ -1,20 +1,28 @@
 package com.github.agadar.javacommander.annotation.parser;
 
+import java.io.Serial;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import com.github.agadar.javacommander.JcCommand;
+import com.github.agadar.javacommander.Bulkhead;
+import com.github.agadar.javacommander.JcCommandMetadata;
 import com.github.agadar.javacommander.annotation.Command;
+import com.github.agadar.javacommander.exception.JavaCommanderException;
 import com.github.agadar.javacommander.exception.OptionAnnotationException;
 import com.github.agadar.javacommander.exception.OptionValueParserException;
 
+import lombok.Getter;
 import lombok.NonNull;
 
 /**
- * Parses {@link Command} annotations to {@link JcCommand} instances.
+ * Parses {@link Command} annotations to {@link JcCommand} instances. The
+ * annotations of each class are parsed to {@link JcCommandMetadata} only once,
+ * after which each parsed command binds that metadata to its object.
  * 
  * @author Agadar (https://github.com/Agadar/)
  *
@@ -23,16 +31,55 @@ public class CommandAnnotationParser {
 
     private final OptionAnnotationParser optionAnnotationParser;
 
+    /**
+     * The parsed metadata of the annotated, public, non-static methods of each
+     * class, computed once per class.
+     */
+    private final ClassValue<List<JcCommandMetadata>> instanceMethodMetadata = new ClassValue<>() {
+        @Override
+        protected List<JcCommandMetadata> computeValue(Class<?> clazz) {
+            return parseMetadata(clazz, false);
+        }
+    };
+
+    /**
+     * The parsed metadata of the annotated, public, static methods of each class,
+     * computed once per class.
+     */
+    private final ClassValue<List<JcCommandMetadata>> staticMethodMetadata = new ClassValue<>() {
+        @Override
+        protected List<JcCommandMetadata> computeValue(Class<?> clazz) {
+            return parseMetadata(clazz, true);
+        }
+    };
+
+    /**
+     * Whether the parsed commands match their option names ignoring case.
+     */
+    @Getter
+    private final boolean ignoreCase;
+
     public CommandAnnotationParser() {
         this(new OptionAnnotationParser());
     }
 
+    public CommandAnnotationParser(boolean ignoreCase) {
+        this(new OptionAnnotationParser(), ignoreCase);
+    }
+
     public CommandAnnotationParser(@NonNull OptionAnnotationParser optionAnnotationParser) {
+        this(optionAnnotationParser, false);
+    }
+
+    public CommandAnnotationParser(@NonNull OptionAnnotationParser optionAnnotationParser, boolean ignoreCase) {
         this.optionAnnotationParser = optionAnnotationParser;
+        this.ignoreCase = ignoreCase;
     }
 
     /**
-     * Parses all annotated, public, non-static methods of the supplied object.
+     * Parses all annotated, public, non-static methods of the supplied object. The
+     * annotations of each class are parsed only once; the commands of later
+     * objects of the same class share the parsed metadata.
      *
      * @param object The object containing annotated methods.
      * @throws OptionAnnotationException  If a method's parameter is not properly
@@ -43,14 +90,7 @@ public class CommandAnnotationParser {
      */
     public Collection<JcCommand> parseFromObject(@NonNull Object object)
             throws OptionAnnotationException, OptionValueParserException {
-
-        var parsedCommands = new ArrayList<JcCommand>();
-        for (var method : object.getClass().getMethods()) {
-            if (method.isAnnotationPresent(Command.class) && !Modifier.isStatic(method.getModifiers())) {
-                parse(object, parsedCommands, method);
-            }
-        }
-        return parsedCommands;
+        return bind(getMetadata(instanceMethodMetadata, object.getClass()), object);
     }
 
     /**
@@ -65,24 +105,90 @@ public class CommandAnnotationParser {
      */
     public Collection<JcCommand> parseFromClass(@NonNull Class<?> clazz)
             throws OptionAnnotationException, OptionValueParserException {
+        return bind(getMetadata(staticMethodMetadata, clazz), clazz);
+    }
 
-        var parsedCommands = new ArrayList<JcCommand>();
+    /**
+     * Parses all annotated, public, non-static methods of the supplied class to
+     * metadata that is not yet bound to an object to invoke the methods on. Like
+     * {@link #parseFromObject(Object)}, this parses each class only once.
+     *
+     * @param clazz The class containing annotated methods.
+     * @return The metadata of the commands, shared by every caller.
+     * @throws OptionAnnotationException  If a method's parameter is not properly
+     *                                    annotated with the @Option annotation.
+     * @throws OptionValueParserException If an option value parser failed to parse
+     *                                    a default value, or when the parser itself
+     *                                    failed to be instantiated.
+     */
+    public List<JcCommandMetadata> parseMetadataFromType(@NonNull Class<?> clazz)
+            throws OptionAnnotationException, OptionValueParserException {
+        return getMetadata(instanceMethodMetadata, clazz);
+    }
+
+    private static Collection<JcCommand> bind(List<JcCommandMetadata> metadata, Object source) {
+        var parsedCommands = new ArrayList<JcCommand>(metadata.size());
+        for (var commandMetadata : metadata) {
+            parsedCommands.add(new JcCommand(commandMetadata, source));
+        }
+        return parsedCommands;
+    }
+
+    private static List<JcCommandMetadata> getMetadata(ClassValue<List<JcCommandMetadata>> metadata,
+            Class<?> clazz) throws OptionAnnotationException, OptionValueParserException {
+        try {
+            return metadata.get(clazz);
+        } catch (ParseFailure failure) {
+            if (failure.getCause() instanceof OptionAnnotationException) {
+                throw (OptionAnnotationException) failure.getCause();
+            }
+            throw (OptionValueParserException) failure.getCause();
+        }
+    }
+
+    /**
+     * Parses the annotated, public methods of the class that are either static or
+     * not. As ClassValue does not allow checked exceptions, failures are wrapped
+     * in a {@link ParseFailure}. Failures are not cached, so a later call for the
+     * same class fails anew.
+     */
+    private List<JcCommandMetadata> parseMetadata(Class<?> clazz, boolean isStatic) {
+        var parsedMetadata = new ArrayList<JcCommandMetadata>();
         for (var method : clazz.getMethods()) {
-            if (method.isAnnotationPresent(Command.class) && Modifier.isStatic(method.getModifiers())) {
-                parse(clazz, parsedCommands, method);
+            if (method.isAnnotationPresent(Command.class) && Modifier.isStatic(method.getModifiers()) == isStatic) {
+                try {
+                    parsedMetadata.add(parse(method));
+                } catch (OptionAnnotationException | OptionValueParserException ex) {
+                    throw new ParseFailure(ex);
+                }
             }
         }
-        return parsedCommands;
+        return List.copyOf(parsedMetadata);
     }
 
-    private void parse(Object source, ArrayList<JcCommand> parsedCommands, Method method)
-            throws OptionAnnotationException, OptionValueParserException {
+    private JcCommandMetadata parse(Method method) throws OptionAnnotationException, OptionValueParserException {
         var commandAnnotation = ((Command) method.getAnnotation(Command.class));
         String[] names = commandAnnotation.names().length > 0 ? commandAnnotation.names()
                 : new String[] { method.getName() };
         String description = commandAnnotation.description();
         var options = optionAnnotationParser.parseOptions(commandAnnotation, method);
-        var command = new JcCommand(Arrays.asList(names), description, options, method, source);
-        parsedCommands.add(command);
+        var bulkhead = commandAnnotation.maxConcurrency() > 0 ? new Bulkhead(commandAnnotation.maxConcurrency(),
+                commandAnnotation.queueCapacity(), commandAnnotation.queueFullPolicy()) : null;
+        return new JcCommandMetadata(Arrays.asList(commandAnnotation.parents()), Arrays.asList(names), description,
+                options, method, ignoreCase, Arrays.asList(commandAnnotation.reads()),
+                Arrays.asList(commandAnnotation.writes()), bulkhead, commandAnnotation.timeoutMillis());
+    }
+
+    /**
+     * Carries a checked exception out of {@link ClassValue#computeValue(Class)}.
+     */
+    private static final class ParseFailure extends RuntimeException {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private ParseFailure(JavaCommanderException cause) {
+            super(cause);
+        }
     }
 }
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 
+import com.github.agadar.javacommander.CommandOutput;
 import com.github.agadar.javacommander.JcCommandOption;
 import com.github.agadar.javacommander.annotation.Command;
 import com.github.agadar.javacommander.annotation.Option;
@@ -25,7 +26,8 @@ public class OptionAnnotationParser {
     /**
      * Validates and parses all {@link Option} annotations found in the
      * {@link Command} annotation, or on the method parameters, to an array of
-     * {@link JcCommandOption}'s.
+     * {@link JcCommandOption}'s. Parameters of type {@link CommandOutput} are not
+     * options, and are skipped.
      *
      * @param commandAnnotation The {@link Command} annotation of the method with
      *                          the {@link Option} annotations to parse.
@@ -41,7 +43,8 @@ public class OptionAnnotationParser {
     public Collection<JcCommandOption<?>> parseOptions(@NonNull Command commandAnnotation, @NonNull Method method)
             throws OptionAnnotationException, OptionValueParserException {
 
-        var parameters = method.getParameters();
+        var parameters = Arrays.stream(method.getParameters())
+                .filter(parameter -> parameter.getType() != CommandOutput.class).toArray(Parameter[]::new);
 
         if (numberOfOptionsInCommandEqualsNumberOfParams(commandAnnotation, parameters)) {
             return parseOptionsFromCommandAnnotation(commandAnnotation, parameters);
@@ -99,7 +102,8 @@ public class OptionAnnotationParser {
         String description = optionAnnotation.description();
         var type = parameter.getType();
         var parserClass = optionAnnotation.valueParser();
-        return new JcCommandOption(Arrays.asList(names), description, type, defaultValueStr, flagValueStr, parserClass);
+        return new JcCommandOption(Arrays.asList(names), description, type, defaultValueStr, flagValueStr, parserClass,
+                optionAnnotation.partitionKey());
     }
 
     private String[] deriveOptionNames(Option optionAnnotation, Parameter parameter) {
@@ -1,5 +1,6 @@
 package com.github.agadar.javacommander.example;
 
+import com.github.agadar.javacommander.CommandOutput;
 import com.github.agadar.javacommander.JavaCommander;
 import com.github.agadar.javacommander.JcCommandOption;
 import com.github.agadar.javacommander.annotation.Command;
@@ -40,10 +41,12 @@ public class ExampleCommands {
      *
      * @param commandName The name of the command to return the help of, or
      *                    null/empty.
+     * @param output      The buffer to print the help to.
      */
     @Command(names = { "help", "usage", "?" }, description = "Display the help.")
     public void usage(
-            @Option(names = "-command", description = "Display a specific command's help.", defaultValue = "null") String commandName) {
+            @Option(names = "-command", description = "Display a specific command's help.", defaultValue = "null") String commandName,
+            CommandOutput output) {
         var stringBuilder = new StringBuilder("--------------------\n");
 
         // If no command name given, then list general info of all commands.
@@ -54,7 +57,7 @@ public class ExampleCommands {
             // Iterate over the commands to find the info
             javaCommander.getCommands().forEach((command) -> {
                 stringBuilder.append("\n");
-                stringBuilder.append(command.getPrimaryName());
+                stringBuilder.append(command.getFullName());
                 var names = command.getNames();
 
                 for (int i = 1; i < names.size(); i++) {
@@ -73,7 +76,7 @@ public class ExampleCommands {
 
             if (command.isEmpty()) {
                 stringBuilder.append(String.format("'%s' is not recognized as a command", commandName));
-                System.out.println(stringBuilder.toString());
+                output.println(stringBuilder);
                 return;
             }
 
@@ -107,7 +110,7 @@ public class ExampleCommands {
         }
         // Print help
         stringBuilder.append("\n--------------------");
-        System.out.println(stringBuilder.toString());
+        output.println(stringBuilder);
     }
 
     /**
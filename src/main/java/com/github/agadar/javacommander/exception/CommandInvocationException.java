@@ -29,7 +29,19 @@ public class CommandInvocationException extends JavaCommanderException {
      * @param cause     The exception that caused the failure.
      */
     public CommandInvocationException(JcCommand jcCommand, Throwable cause) {
-        super(String.format("Failed to invoke command '%s'", jcCommand.getPrimaryName()), cause);
+        super(String.format("Failed to invoke command '%s'", jcCommand.getFullName()), cause);
+        this.jcCommand = jcCommand;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param jcCommand The command that failed to be invoked.
+     * @param message   An informative message.
+     * @param cause     The exception that caused the failure, if any.
+     */
+    protected CommandInvocationException(JcCommand jcCommand, String message, Throwable cause) {
+        super(message, cause);
         this.jcCommand = jcCommand;
     }
 }
@@ -0,0 +1,27 @@
+package com.github.agadar.javacommander.exception;
+
+import com.github.agadar.javacommander.JcCommand;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a command was not invoked because as many invocations of it as
+ * allowed were already running and waiting.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public class CommandRejectedException extends CommandInvocationException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor.
+     *
+     * @param jcCommand The command that was rejected.
+     */
+    public CommandRejectedException(JcCommand jcCommand) {
+        super(jcCommand, String.format("Rejected command '%s', as too many invocations of it are pending",
+                jcCommand.getFullName()), null);
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.agadar.javacommander.exception;
+
+import com.github.agadar.javacommander.JcCommand;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a command did not finish before its timeout or the deadline of
+ * its execution. The thread invoking the command was interrupted.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public class CommandTimeoutException extends CommandInvocationException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor.
+     *
+     * @param jcCommand The command that did not finish in time.
+     * @param cause     The exception the command failed with after it was
+     *                  interrupted, if any.
+     */
+    public CommandTimeoutException(JcCommand jcCommand, Throwable cause) {
+        super(jcCommand, String.format("Command '%s' did not finish in time", jcCommand.getFullName()), cause);
+    }
+}
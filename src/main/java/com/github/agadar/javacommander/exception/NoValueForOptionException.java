@@ -36,7 +36,7 @@ public class NoValueForOptionException extends JavaCommanderException {
      */
     public NoValueForOptionException(JcCommand jcCommand, JcCommandOption<?> jcOption) {
         super(String.format("Option '%s' of command '%s' was not supplied a value", jcOption.getPrimaryName(),
-                jcCommand.getPrimaryName()));
+                jcCommand.getFullName()));
         this.jcCommand = jcCommand;
         this.jcCommandOption = jcOption;
     }
@@ -0,0 +1,24 @@
+package com.github.agadar.javacommander.exception;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a compiled script was run after the commands it was compiled
+ * against changed, so that it may invoke commands that no longer exist.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public class StaleScriptException extends JavaCommanderException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor.
+     *
+     * @param source The source the script was compiled from.
+     */
+    public StaleScriptException(String source) {
+        super(String.format("Script '%s' was compiled against commands that have since changed", source));
+    }
+}
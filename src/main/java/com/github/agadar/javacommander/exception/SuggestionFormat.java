@@ -0,0 +1,27 @@
+package com.github.agadar.javacommander.exception;
+
+import java.util.List;
+
+/**
+ * Formats 'did you mean' suggestions for exception messages.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+final class SuggestionFormat {
+
+    private SuggestionFormat() {
+    }
+
+    /**
+     * Formats the suggestions as a sentence to append to a message.
+     *
+     * @param suggestions The suggestions.
+     * @return The formatted suggestions, or the empty string if there are none.
+     */
+    static String format(List<String> suggestions) {
+        if (suggestions.isEmpty()) {
+            return "";
+        }
+        return String.format(". Did you mean '%s'?", String.join("', '", suggestions));
+    }
+}
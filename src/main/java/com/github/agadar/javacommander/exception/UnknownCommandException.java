@@ -3,12 +3,14 @@ package com.github.agadar.javacommander.exception;
 import lombok.Getter;
 
 import java.io.Serial;
+import java.util.List;
 
 /**
  * Thrown when a command was not found.
  *
  * @author Agadar (https://github.com/Agadar/)
  */
+@Getter
 public class UnknownCommandException extends JavaCommanderException {
 
     @Serial
@@ -17,16 +19,33 @@ public class UnknownCommandException extends JavaCommanderException {
     /**
      * The name of the command that was not found.
      */
-    @Getter
     private final String commandName;
 
+    /**
+     * The names of known commands closest to the one that was not found, closest
+     * first. Empty if none were close enough.
+     */
+    private final List<String> suggestions;
+
     /**
      * Constructor.
      *
      * @param commandName The name of the command that was not found.
      */
     public UnknownCommandException(String commandName) {
-        super(String.format("Command '%s' was not found", commandName));
+        this(commandName, List.of());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param commandName The name of the command that was not found.
+     * @param suggestions The names of known commands closest to the one that was
+     *                    not found, closest first.
+     */
+    public UnknownCommandException(String commandName, List<String> suggestions) {
+        super(String.format("Command '%s' was not found%s", commandName, SuggestionFormat.format(suggestions)));
         this.commandName = commandName;
+        this.suggestions = List.copyOf(suggestions);
     }
 }
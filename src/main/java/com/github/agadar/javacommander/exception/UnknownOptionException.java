@@ -5,6 +5,7 @@ import com.github.agadar.javacommander.JcCommand;
 import lombok.Getter;
 
 import java.io.Serial;
+import java.util.List;
 
 /**
  * Thrown when an option was supplied for a command that does not have that
@@ -28,6 +29,12 @@ public class UnknownOptionException extends JavaCommanderException {
      */
     private final String optionName;
 
+    /**
+     * The command's option names closest to the invalid one, closest first. Empty
+     * if none were close enough.
+     */
+    private final List<String> suggestions;
+
     /**
      * Constructor.
      *
@@ -36,8 +43,23 @@ public class UnknownOptionException extends JavaCommanderException {
      * @param optionName The name of the option that is not valid for the command.
      */
     public UnknownOptionException(JcCommand jcCommand, String optionName) {
-        super(String.format("'%s' is not a valid option for command '%s'", optionName, jcCommand.getPrimaryName()));
+        this(jcCommand, optionName, List.of());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param jcCommand   The command of which an option was supplied that it does
+     *                    not have.
+     * @param optionName  The name of the option that is not valid for the command.
+     * @param suggestions The command's option names closest to the invalid one,
+     *                    closest first.
+     */
+    public UnknownOptionException(JcCommand jcCommand, String optionName, List<String> suggestions) {
+        super(String.format("'%s' is not a valid option for command '%s'%s", optionName, jcCommand.getFullName(),
+                SuggestionFormat.format(suggestions)));
         this.jcCommand = jcCommand;
         this.optionName = optionName;
+        this.suggestions = List.copyOf(suggestions);
     }
 }
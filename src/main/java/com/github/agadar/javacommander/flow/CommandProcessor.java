@@ -0,0 +1,293 @@
+package com.github.agadar.javacommander.flow;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.agadar.javacommander.ExecutionContext;
+import com.github.agadar.javacommander.JavaCommander;
+import com.github.agadar.javacommander.exception.JavaCommanderException;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Executes the input lines of a {@link Flow.Publisher} and publishes the results
+ * to a single subscriber, in the order the lines were received in.
+ * <p>
+ * Each line is executed asynchronously through
+ * {@link JavaCommander#executeAsync(String, ExecutionContext)}, so that lines
+ * are executed concurrently with each other. The number of lines that were
+ * received but whose results were not delivered yet never exceeds the window,
+ * so that a fast publisher cannot overrun the command workers, nor a slow
+ * subscriber make results pile up: once the subscriber has a subscription, a
+ * window of lines is requested from the publisher, and more lines are only
+ * requested as results are delivered. Rather than requesting a line for each
+ * result delivered, lines are requested in batches, so that the publisher is
+ * not signalled for every single line.
+ * <p>
+ * A line that fails to execute is published as a failed result, rather than
+ * ending the flow. If the publisher fails, the subscriber is signalled the
+ * failure once the results of the lines received before it are delivered.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public class CommandProcessor implements Flow.Processor<String, ExecutionResult> {
+
+    private final JavaCommander javaCommander;
+    private final ExecutionContext context;
+
+    /**
+     * The maximum number of lines received whose results were not delivered yet.
+     */
+    @Getter
+    private final int window;
+
+    /**
+     * The number of delivered results after which as many lines are requested.
+     */
+    @Getter
+    private final int batchSize;
+
+    /**
+     * The lines received whose results were not delivered yet, in order.
+     */
+    private final ConcurrentLinkedQueue<PendingLine> pendingLines = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of results the subscriber requested and was not delivered yet.
+     */
+    private final AtomicLong requested = new AtomicLong();
+
+    /**
+     * Makes sure only one thread at a time delivers results. Counts the signals
+     * that arrived while a thread was delivering, so that it checks again.
+     */
+    private final AtomicInteger deliveries = new AtomicInteger();
+
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private volatile Flow.Subscription upstream;
+    private volatile Flow.Subscriber<? super ExecutionResult> downstream;
+    private volatile boolean upstreamDone;
+    private volatile Throwable upstreamFailure;
+    private volatile boolean cancelled;
+
+    // Only accessed by the delivering thread.
+    private boolean windowRequested;
+    private int deliveredSinceRequest;
+    private boolean terminated;
+
+    /**
+     * Constructor, for a processor executing lines in the empty context, and
+     * requesting lines in batches of half the window.
+     *
+     * @param javaCommander The JavaCommander instance executing the lines.
+     * @param window        The maximum number of lines received whose results
+     *                      were not delivered yet.
+     * @throws IllegalArgumentException If the window is not positive.
+     */
+    public CommandProcessor(@NonNull JavaCommander javaCommander, int window) throws IllegalArgumentException {
+        this(javaCommander, ExecutionContext.EMPTY, window, Math.max(1, window / 2));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param javaCommander The JavaCommander instance executing the lines.
+     * @param context       The context to execute the lines in.
+     * @param window        The maximum number of lines received whose results
+     *                      were not delivered yet.
+     * @param batchSize     The number of delivered results after which as many
+     *                      lines are requested.
+     * @throws IllegalArgumentException If the window is not positive, or if the
+     *                                  batch size is not positive or exceeds
+     *                                  the window.
+     */
+    public CommandProcessor(@NonNull JavaCommander javaCommander, @NonNull ExecutionContext context, int window,
+            int batchSize) throws IllegalArgumentException {
+        if (window < 1) {
+            throw new IllegalArgumentException("'window' should be positive");
+        }
+        if (batchSize < 1 || batchSize > window) {
+            throw new IllegalArgumentException("'batchSize' should be positive and not exceed 'window'");
+        }
+        this.javaCommander = javaCommander;
+        this.context = context;
+        this.window = window;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void subscribe(@NonNull Flow.Subscriber<? super ExecutionResult> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("This processor already has a subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    upstreamFailure = new IllegalArgumentException("Subscribers should request a positive number");
+                    cancelUpstream();
+                    upstreamDone = true;
+                    pendingLines.clear();
+                } else {
+                    requested.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE
+                            : current + added);
+                }
+                deliver();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                cancelUpstream();
+                deliver();
+            }
+        });
+        downstream = subscriber;
+        deliver();
+    }
+
+    @Override
+    public void onSubscribe(@NonNull Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        if (cancelled) {
+            subscription.cancel();
+        }
+        deliver();
+    }
+
+    @Override
+    public void onNext(@NonNull String input) {
+        var pendingLine = new PendingLine(input, execute(input));
+        pendingLines.offer(pendingLine);
+        pendingLine.future.whenComplete((results, failure) -> deliver());
+    }
+
+    @Override
+    public void onError(@NonNull Throwable throwable) {
+        upstreamFailure = throwable;
+        upstreamDone = true;
+        deliver();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        deliver();
+    }
+
+    private CompletableFuture<List<Object>> execute(String input) {
+        try {
+            return javaCommander.executeAsync(input, context);
+        } catch (JavaCommanderException | RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private void cancelUpstream() {
+        var subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Delivers the results that are done and requested, and requests lines as
+     * results are delivered. Any thread may call this; if another thread is
+     * delivering already, that thread delivers again instead.
+     */
+    private void deliver() {
+        if (deliveries.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            deliverOnce();
+            missed = deliveries.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void deliverOnce() {
+        var subscriber = downstream;
+        if (terminated || subscriber == null) {
+            return;
+        }
+        if (cancelled) {
+            terminated = true;
+            pendingLines.clear();
+            return;
+        }
+        var subscription = upstream;
+        if (!windowRequested && subscription != null && !upstreamDone) {
+            windowRequested = true;
+            subscription.request(window);
+        }
+        PendingLine pendingLine;
+        while (requested.get() > 0 && (pendingLine = pendingLines.peek()) != null && pendingLine.future.isDone()) {
+            pendingLines.poll();
+            requested.decrementAndGet();
+            subscriber.onNext(pendingLine.toResult());
+            if (cancelled) {
+                return;
+            }
+            if (++deliveredSinceRequest >= batchSize && !upstreamDone) {
+                subscription.request(deliveredSinceRequest);
+                deliveredSinceRequest = 0;
+            }
+        }
+        if (upstreamDone && pendingLines.isEmpty()) {
+            terminated = true;
+            if (upstreamFailure != null) {
+                subscriber.onError(upstreamFailure);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+    }
+
+    /**
+     * A line that was received, along with the future of its execution.
+     */
+    private static final class PendingLine {
+
+        private final String input;
+        private final CompletableFuture<List<Object>> future;
+
+        private PendingLine(String input, CompletableFuture<List<Object>> future) {
+            this.input = input;
+            this.future = future;
+        }
+
+        private ExecutionResult toResult() {
+            try {
+                return new ExecutionResult(input, future.join(), null);
+            } catch (CompletionException ex) {
+                return new ExecutionResult(input, List.of(), ex.getCause() != null ? ex.getCause() : ex);
+            } catch (RuntimeException ex) {
+                return new ExecutionResult(input, List.of(), ex);
+            }
+        }
+    }
+}
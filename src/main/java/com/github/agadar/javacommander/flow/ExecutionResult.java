@@ -0,0 +1,61 @@
+package com.github.agadar.javacommander.flow;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The outcome of executing one input line: the values returned by its commands,
+ * or the exception that made it fail.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public final class ExecutionResult {
+
+    /**
+     * The input line that was executed.
+     */
+    @Getter
+    private final String input;
+
+    /**
+     * The values returned by the line's commands, in order, or an empty list if
+     * executing the line failed.
+     */
+    @Getter
+    private final List<Object> values;
+
+    /**
+     * The exception that made executing the line fail, or null if it succeeded.
+     */
+    @Getter
+    private final Throwable failure;
+
+    /**
+     * Constructor.
+     *
+     * @param input   The input line that was executed.
+     * @param values  The values returned by the line's commands.
+     * @param failure The exception that made executing the line fail, or null.
+     */
+    public ExecutionResult(@NonNull String input, @NonNull List<Object> values, Throwable failure) {
+        this.input = input;
+        this.values = values;
+        this.failure = failure;
+    }
+
+    /**
+     * Returns whether executing the line succeeded.
+     *
+     * @return Whether there was no failure.
+     */
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? input + " -> " + values : input + " -> " + failure;
+    }
+}
@@ -18,6 +18,11 @@ import lombok.NonNull;
  */
 public class ArgumentsParser {
 
+    /**
+     * The maximum number of 'did you mean' suggestions for unknown option names.
+     */
+    private static final int MAX_SUGGESTIONS = 3;
+
     /**
      * Parses the argument list.
      * 
@@ -33,6 +38,36 @@ public class ArgumentsParser {
      */
     public Object[] parseArguments(@NonNull List<String> args, @NonNull JcCommand command)
             throws NoValueForOptionException, UnknownOptionException, OptionValueParserException {
+        return parse(args, command, null, null);
+    }
+
+    /**
+     * Parses the argument list, except for the argument tokens equal to the
+     * placeholder. Rather than being parsed, the indices of the options they are
+     * for are added to the list, in the order the placeholders appear in. The
+     * entries of those options in the returned array are left null.
+     * 
+     * @param args               The argument tokens to parse.
+     * @param command            The command to parse the tokens for.
+     * @param placeholder        The token that stands for a value supplied later.
+     * @param placeholderIndices The list to add the options' indices to.
+     * 
+     * @throws UnknownOptionException     If an option was supplied for the command
+     *                                    that it does not have.
+     * @throws NoValueForOptionException  If an option without a default value was
+     *                                    not supplied a value or placeholder.
+     * @throws OptionValueParserException If an argument token could not be parsed
+     *                                    to its corresponding parameter type.
+     */
+    public Object[] parseArguments(@NonNull List<String> args, @NonNull JcCommand command,
+            @NonNull String placeholder, @NonNull List<Integer> placeholderIndices)
+            throws NoValueForOptionException, UnknownOptionException, OptionValueParserException {
+        return parse(args, command, placeholder, placeholderIndices);
+    }
+
+    private Object[] parse(List<String> args, JcCommand command, String placeholder,
+            List<Integer> placeholderIndices)
+            throws NoValueForOptionException, UnknownOptionException, OptionValueParserException {
 
         Object[] finalArgs = new Object[command.numberOfOptions()];
 
@@ -42,9 +77,9 @@ public class ArgumentsParser {
             // If the first argument is a valid option, use explicit parsing.
             // Otherwise, use implicit parsing.
             if (command.hasOption(args.get(1))) {
-                parseArgumentsExplicit(args, command, finalArgs);
+                parseArgumentsExplicit(args, command, finalArgs, placeholder, placeholderIndices);
             } else {
-                parseArgumentsImplicit(args, command, finalArgs);
+                parseArgumentsImplicit(args, command, finalArgs, placeholder, placeholderIndices);
             }
         }
 
@@ -53,7 +88,7 @@ public class ArgumentsParser {
         for (int i = 0; i < finalArgs.length; i++) {
             Object val = finalArgs[i];
 
-            if (val == null) {
+            if (val == null && (placeholderIndices == null || !placeholderIndices.contains(i))) {
                 var option = command.getOptionByIndex(i).get();
                 var defaultValue = option.getDefaultValue();
 
@@ -67,7 +102,8 @@ public class ArgumentsParser {
         return finalArgs;
     }
 
-    private void parseArgumentsExplicit(List<String> args, JcCommand command, Object[] finalArgs)
+    private void parseArgumentsExplicit(List<String> args, JcCommand command, Object[] finalArgs,
+            String placeholder, List<Integer> placeholderIndices)
             throws UnknownOptionException, OptionValueParserException, NoValueForOptionException {
 
         JcCommandOption<?> currentOption = null;
@@ -78,8 +114,12 @@ public class ArgumentsParser {
             String currentArg = args.get(argsIndex);
 
             if (findingValueForOption) {
-                var parsedArg = currentOption.parseOptionValue(currentArg);
-                finalArgs[indexOfOption] = parsedArg;
+                if (currentArg.equals(placeholder)) {
+                    placeholderIndices.add(indexOfOption);
+                } else {
+                    var parsedArg = currentOption.parseOptionValue(currentArg);
+                    finalArgs[indexOfOption] = parsedArg;
+                }
                 findingValueForOption = false;
 
             } else {
@@ -102,7 +142,8 @@ public class ArgumentsParser {
     }
 
     private JcCommandOption<?> tryGetOption(JcCommand command, String currentArg) throws UnknownOptionException {
-        return command.getOptionByName(currentArg).orElseThrow(() -> new UnknownOptionException(command, currentArg));
+        return command.getOptionByName(currentArg).orElseThrow(() -> new UnknownOptionException(command, currentArg,
+                command.suggestOptionNames(currentArg, MAX_SUGGESTIONS)));
     }
 
     private boolean useFlagValueForOption(List<String> args, JcCommand command, JcCommandOption<?> currentOption,
@@ -113,8 +154,8 @@ public class ArgumentsParser {
         return hasFlagValue && (nextArgIsOptionName || nextArgsIndex >= args.size());
     }
 
-    private void parseArgumentsImplicit(List<String> args, JcCommand command, Object[] finalArgs)
-            throws OptionValueParserException {
+    private void parseArgumentsImplicit(List<String> args, JcCommand command, Object[] finalArgs,
+            String placeholder, List<Integer> placeholderIndices) throws OptionValueParserException {
 
         // If too many arguments were supplied, throw an error.
         if (args.size() - 1 > finalArgs.length) {
@@ -127,7 +168,11 @@ public class ArgumentsParser {
             var currentOption = command.getOptionByIndex(i - 1).get();
             var currentArg = args.get(i);
 
-            if (currentOption.getFlagValue() != null && currentOption.getNames().contains(currentArg)) {
+            if (currentArg.equals(placeholder)) {
+                placeholderIndices.add(i - 1);
+
+            } else if (currentOption.getFlagValue() != null
+                    && command.getOptionByName(currentArg).orElse(null) == currentOption) {
                 finalArgs[i - 1] = currentOption.getFlagValue();
 
             } else {
@@ -0,0 +1,336 @@
+package com.github.agadar.javacommander.misc;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * An estimate of the memory used by an object graph, broken down per class in
+ * the style of JOL's {@code GraphLayout.toFootprint()}. Sizes are estimated for
+ * a 64-bit JVM with compressed references: 12-byte object headers, 16-byte
+ * array headers, 4-byte references, and objects aligned to 8 bytes.
+ * <p>
+ * Fields of the application's own classes are followed reflectively. The
+ * internals of JDK classes cannot be read without opening the java.base module,
+ * so strings, boxed values and the common collections are modelled after their
+ * OpenJDK 17 layout instead. E.g. an ArrayList is assumed to have grown from the
+ * default capacity of 10, and hash tables to have the default load factor.
+ * Classes, methods, class loaders, threads and the referents of references are
+ * never counted, as they are not owned by the graph.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public final class Footprint {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ALIGNMENT = 8;
+    private static final int DEFAULT_ARRAY_LIST_CAPACITY = 10;
+    private static final int DEFAULT_HASH_MAP_CAPACITY = 16;
+    private static final int HASH_MAP_NODE = 32;
+    private static final int TREE_MAP_ENTRY = 40;
+
+    private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            long size = OBJECT_HEADER;
+            for (var current = type; current != null; current = current.getSuperclass()) {
+                for (var field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        size += sizeOf(field.getType());
+                    }
+                }
+            }
+            return align(size);
+        }
+    };
+
+    /**
+     * The number of objects and their total size, per class name.
+     */
+    private final Map<String, long[]> countsAndSizes = new TreeMap<>();
+
+    /**
+     * The total number of objects.
+     */
+    @Getter
+    private long totalCount;
+
+    /**
+     * The total estimated size in bytes.
+     */
+    @Getter
+    private long totalBytes;
+
+    private Footprint() {
+    }
+
+    /**
+     * Estimates the memory used by the objects reachable from the root.
+     *
+     * @param root     The root of the object graph.
+     * @param excluded Objects that are neither counted nor followed, such as
+     *                 objects that are merely referred to by the graph.
+     * @return The estimate.
+     */
+    public static Footprint of(@NonNull Object root, @NonNull Predicate<Object> excluded) {
+        var footprint = new Footprint();
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+
+        while (!pending.isEmpty()) {
+            var object = pending.pop();
+            if (isNeverCounted(object) || excluded.test(object) || !visited.add(object)) {
+                continue;
+            }
+            footprint.visit(object, pending);
+        }
+        return footprint;
+    }
+
+    /**
+     * Returns the number of objects of the class.
+     *
+     * @param className The name of the class.
+     * @return The number of objects of the class.
+     */
+    public long getCount(@NonNull String className) {
+        var countAndSize = countsAndSizes.get(className);
+        return countAndSize == null ? 0 : countAndSize[0];
+    }
+
+    /**
+     * Returns the estimated size in bytes of all objects of the class.
+     *
+     * @param className The name of the class.
+     * @return The estimated size of all objects of the class.
+     */
+    public long getBytes(@NonNull String className) {
+        var countAndSize = countsAndSizes.get(className);
+        return countAndSize == null ? 0 : countAndSize[1];
+    }
+
+    /**
+     * Returns the names of the classes of the counted objects, in alphabetical
+     * order.
+     *
+     * @return The names of the classes.
+     */
+    public Set<String> getClassNames() {
+        return Collections.unmodifiableSet(countsAndSizes.keySet());
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder(String.format("%12s %10s %12s   %s%n", "COUNT", "AVG", "SUM", "DESCRIPTION"));
+        countsAndSizes.forEach((className, countAndSize) -> builder.append(String.format("%12d %10d %12d   %s%n",
+                countAndSize[0], countAndSize[1] / countAndSize[0], countAndSize[1], className)));
+        builder.append(String.format("%12d %10s %12d   (total)%n", totalCount, "", totalBytes));
+        return builder.toString();
+    }
+
+    private void visit(Object object, Deque<Object> pending) {
+        var type = object.getClass();
+
+        if (type.isArray()) {
+            visitArray(object, pending);
+        } else if (object instanceof String) {
+            var string = (String) object;
+            boolean latin1 = string.chars().allMatch(c -> c <= 0xFF);
+            add(type, shallowSize(type));
+            add(byte[].class, arraySize(string.length() * (latin1 ? 1 : 2)));
+        } else if (!isJdkClass(type)) {
+            add(type, shallowSize(type));
+            for (var current = type; current != null && !isJdkClass(current); current = current.getSuperclass()) {
+                followFields(object, current, pending);
+            }
+        } else if (object instanceof Collection) {
+            visitCollection((Collection<?>) object, pending);
+        } else if (object instanceof Map) {
+            visitMap((Map<?, ?>) object, pending);
+        } else {
+            // Other JDK objects, such as boxed values, are counted but not followed.
+            add(type, shallowSize(type));
+        }
+    }
+
+    private void visitArray(Object array, Deque<Object> pending) {
+        var componentType = array.getClass().getComponentType();
+        int length = Array.getLength(array);
+        add(array.getClass(), arraySize((long) length * sizeOf(componentType)));
+
+        if (!componentType.isPrimitive()) {
+            for (int i = 0; i < length; i++) {
+                pushIfNotNull(Array.get(array, i), pending);
+            }
+        }
+    }
+
+    private void visitCollection(Collection<?> collection, Deque<Object> pending) {
+        var type = collection.getClass();
+        String name = type.getName();
+        int size = collection.size();
+        add(type, shallowSize(type));
+
+        if (name.equals("java.util.ArrayList")) {
+            if (size > 0) {
+                add(Object[].class, arraySize((long) arrayListCapacity(size) * REFERENCE));
+            }
+        } else if (name.startsWith("java.util.Collections$Unmodifiable")) {
+            // Assume the wrapped collection is an ArrayList.
+            add(ArrayList.class, shallowSize(ArrayList.class));
+            if (size > 0) {
+                add(Object[].class, arraySize((long) arrayListCapacity(size) * REFERENCE));
+            }
+        } else if (name.startsWith("java.util.ImmutableCollections$List12")
+                || name.startsWith("java.util.ImmutableCollections$Set12")) {
+            // Elements are held in fields.
+        } else {
+            add(Object[].class, arraySize((long) size * REFERENCE));
+        }
+        for (var element : collection) {
+            pushIfNotNull(element, pending);
+        }
+    }
+
+    private void visitMap(Map<?, ?> map, Deque<Object> pending) {
+        var type = map.getClass();
+        String name = type.getName();
+        int size = map.size();
+        add(type, shallowSize(type));
+
+        if (name.equals("java.util.TreeMap")) {
+            addEntries(name + "$Entry", size, TREE_MAP_ENTRY);
+        } else if (name.equals("java.util.IdentityHashMap")) {
+            add(Object[].class, arraySize(2L * identityHashMapCapacity(size) * REFERENCE));
+        } else if (name.equals("java.util.HashMap") || name.equals("java.util.LinkedHashMap")) {
+            if (size > 0) {
+                add(Object[].class, arraySize((long) hashMapCapacity(size) * REFERENCE));
+            }
+            addEntries("java.util.HashMap$Node", size, HASH_MAP_NODE);
+        } else if (!name.startsWith("java.util.ImmutableCollections$Map1")) {
+            add(Object[].class, arraySize(2L * size * REFERENCE));
+        }
+        for (var entry : map.entrySet()) {
+            pushIfNotNull(entry.getKey(), pending);
+            pushIfNotNull(entry.getValue(), pending);
+        }
+    }
+
+    private void followFields(Object object, Class<?> declaringType, Deque<Object> pending) {
+        for (Field field : declaringType.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                pushIfNotNull(field.get(object), pending);
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                // Fields that cannot be read are counted in the shallow size only.
+            }
+        }
+    }
+
+    private void add(Class<?> type, long bytes) {
+        add(type.getName(), 1, bytes);
+    }
+
+    private void addEntries(String className, int count, long bytesPerEntry) {
+        if (count > 0) {
+            add(className, count, count * bytesPerEntry);
+        }
+    }
+
+    private void add(String className, long count, long bytes) {
+        var countAndSize = countsAndSizes.computeIfAbsent(className, name -> new long[2]);
+        countAndSize[0] += count;
+        countAndSize[1] += bytes;
+        totalCount += count;
+        totalBytes += bytes;
+    }
+
+    private static void pushIfNotNull(Object object, Deque<Object> pending) {
+        if (object != null) {
+            pending.push(object);
+        }
+    }
+
+    private static boolean isNeverCounted(Object object) {
+        return object instanceof Class || object instanceof Member || object instanceof ClassLoader
+                || object instanceof Thread || object instanceof Module;
+    }
+
+    private static boolean isJdkClass(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.")
+                || name.startsWith("sun.");
+    }
+
+    private static long shallowSize(Class<?> type) {
+        return SHALLOW_SIZES.get(type);
+    }
+
+    private static long arraySize(long elementBytes) {
+        return align(ARRAY_HEADER + elementBytes);
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static int sizeOf(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static int arrayListCapacity(int size) {
+        int capacity = DEFAULT_ARRAY_LIST_CAPACITY;
+        while (capacity < size) {
+            capacity += capacity >> 1;
+        }
+        return capacity;
+    }
+
+    private static int hashMapCapacity(int size) {
+        int capacity = DEFAULT_HASH_MAP_CAPACITY;
+        while (capacity * 3 / 4 < size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int identityHashMapCapacity(int size) {
+        int capacity = 32;
+        while (capacity < size * 3 / 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.agadar.javacommander.misc;
+
+import java.util.TreeSet;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Compares the estimated memory use of two layouts of the same data, such as a
+ * registry before and after it was frozen.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public final class FootprintReport {
+
+    /**
+     * The footprint of the original layout.
+     */
+    @Getter
+    private final Footprint before;
+
+    /**
+     * The footprint of the new layout.
+     */
+    @Getter
+    private final Footprint after;
+
+    /**
+     * Constructor.
+     *
+     * @param before The footprint of the original layout.
+     * @param after  The footprint of the new layout.
+     */
+    public FootprintReport(@NonNull Footprint before, @NonNull Footprint after) {
+        this.before = before;
+        this.after = after;
+    }
+
+    /**
+     * Returns the number of bytes the new layout saves compared to the original.
+     *
+     * @return The number of bytes saved, negative if the new layout uses more.
+     */
+    public long getBytesSaved() {
+        return before.getTotalBytes() - after.getTotalBytes();
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder(String.format("%12s %12s %12s %12s   %s%n", "COUNT BEFORE", "SUM BEFORE",
+                "COUNT AFTER", "SUM AFTER", "DESCRIPTION"));
+        var classNames = new TreeSet<>(before.getClassNames());
+        classNames.addAll(after.getClassNames());
+
+        for (String className : classNames) {
+            builder.append(String.format("%12d %12d %12d %12d   %s%n", before.getCount(className),
+                    before.getBytes(className), after.getCount(className), after.getBytes(className), className));
+        }
+        builder.append(String.format("%12d %12d %12d %12d   (total)%n", before.getTotalCount(),
+                before.getTotalBytes(), after.getTotalCount(), after.getTotalBytes()));
+        double savedPercentage = before.getTotalBytes() == 0 ? 0 : 100.0 * getBytesSaved() / before.getTotalBytes();
+        builder.append(String.format("Saved %d bytes (%.1f%%)%n", getBytesSaved(), savedPercentage));
+        return builder.toString();
+    }
+}
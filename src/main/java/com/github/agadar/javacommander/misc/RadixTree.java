@@ -0,0 +1,575 @@
+package com.github.agadar.javacommander.misc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+import lombok.NonNull;
+
+/**
+ * A compressed radix trie mapping string keys to values. Besides exact
+ * lookups, it supports finding the value of a unique key prefix (for
+ * abbreviated command names) and iterating over all entries whose key starts
+ * with a prefix. Entries are kept in lexicographic order of their keys, the
+ * same order a {@code TreeMap<String, V>} would use.
+ * <p>
+ * Each node stores the part of the key along its incoming edge, its children
+ * sorted by their first character, and the number of values in its subtree.
+ * Prefix lookups therefore cost O(prefix length) and never need to visit
+ * unrelated branches. Searching keys by Levenshtein distance (for 'did you
+ * mean' suggestions) walks the tree while computing one row of the distance
+ * matrix per character, abandoning a branch as soon as every entry of its row
+ * exceeds the maximum distance; shared prefixes are thus compared only once.
+ * <p>
+ * A tree can be made to ignore case. Keys are then folded to lower case once
+ * when they are put, and the characters of looked up keys are folded one at a
+ * time while comparing them, so that lookups do not need to copy their input.
+ * Keys handed out by the tree are the folded ones.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ * @param <V> The type of the values.
+ */
+public class RadixTree<V> {
+
+    /**
+     * Returned by {@link #findSoleValue(Node, Object)} when a subtree contains
+     * more than one distinct value.
+     */
+    private static final Object AMBIGUOUS = new Object();
+
+    private static final Comparator<KeyDistance> BY_DISTANCE_THEN_KEY = Comparator
+            .<KeyDistance>comparingInt(match -> match.distance).thenComparing(match -> match.key);
+
+    private final Node<V> root = new Node<>("");
+
+    /**
+     * Whether keys are compared ignoring case.
+     */
+    private final boolean ignoreCase;
+
+    /**
+     * Constructor for a tree that compares keys case-sensitively.
+     */
+    public RadixTree() {
+        this(false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param ignoreCase Whether keys are compared ignoring case.
+     */
+    public RadixTree(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * Returns whether keys are compared ignoring case.
+     *
+     * @return Whether keys are compared ignoring case.
+     */
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    /**
+     * Returns the number of keys in this tree.
+     *
+     * @return The number of keys in this tree.
+     */
+    public int size() {
+        return root.count;
+    }
+
+    /**
+     * Returns whether this tree contains no keys.
+     *
+     * @return Whether this tree contains no keys.
+     */
+    public boolean isEmpty() {
+        return root.count == 0;
+    }
+
+    /**
+     * Returns the value mapped to the exact key.
+     *
+     * @param key The key to look up.
+     * @return The value mapped to the key, or null if there is none.
+     */
+    public V get(@NonNull CharSequence key) {
+        var node = root;
+        int index = 0;
+
+        while (index < key.length()) {
+            var child = node.childStartingWith(fold(key.charAt(index)));
+
+            if (child == null || !labelMatches(child.label, key, index)) {
+                return null;
+            }
+            index += child.label.length();
+            node = child;
+        }
+        return node.value;
+    }
+
+    /**
+     * Returns whether the exact key is mapped to a value.
+     *
+     * @param key The key to check.
+     * @return Whether the key is mapped to a value.
+     */
+    public boolean containsKey(@NonNull CharSequence key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps the key to the value, replacing any value it was mapped to before.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The value the key was previously mapped to, or null.
+     */
+    public V put(@NonNull String key, @NonNull V value) {
+        return put(root, ignoreCase ? foldAll(key) : key, 0, value);
+    }
+
+    /**
+     * Removes the mapping of the key, if any.
+     *
+     * @param key The key to remove.
+     * @return The value the key was mapped to, or null.
+     */
+    public V remove(@NonNull CharSequence key) {
+        return remove(root, key, 0);
+    }
+
+    /**
+     * Removes all keys.
+     */
+    public void clear() {
+        root.value = null;
+        root.children = Node.noChildren();
+        root.count = 0;
+    }
+
+    /**
+     * Replaces the label of each node, i.e. the part of the keys along the edge
+     * leading to it, by the instance the interner returns for it. Used to share
+     * equal labels between trees, such as the option names of many commands.
+     *
+     * @param interner Returns the shared instance equal to a label.
+     */
+    public void internLabels(@NonNull UnaryOperator<String> interner) {
+        internLabels(root, interner);
+    }
+
+    /**
+     * Returns the value of the key that exactly equals the prefix or, failing
+     * that, the value that all keys starting with the prefix are mapped to. The
+     * latter only succeeds if the prefix is unambiguous, i.e. all keys starting
+     * with it are mapped to the same value (such as synonyms of one command).
+     *
+     * @param prefix The (abbreviated) key to look up.
+     * @return The value, or null if there is none or the prefix is ambiguous.
+     */
+    @SuppressWarnings("unchecked")
+    public V getByUniquePrefix(@NonNull CharSequence prefix) {
+        var node = root;
+        int index = 0;
+
+        while (index < prefix.length()) {
+            var child = node.childStartingWith(fold(prefix.charAt(index)));
+            if (child == null) {
+                return null;
+            }
+            int matched = matchLength(child.label, prefix, index);
+
+            if (matched < child.label.length()) {
+                if (index + matched < prefix.length()) {
+                    return null;
+                }
+                // The prefix ends halfway this child's label.
+                node = child;
+                break;
+            }
+            index += matched;
+            node = child;
+        }
+        if (node.value != null) {
+            return node.value;
+        }
+        var soleValue = findSoleValue(node, null);
+        return soleValue == AMBIGUOUS ? null : (V) soleValue;
+    }
+
+    /**
+     * Performs the action for each entry whose key starts with the prefix, in
+     * lexicographic order of the keys. The key handed to the action is a view on
+     * a buffer that is reused for every entry; it is only valid for the duration
+     * of the call and should be copied using toString() if it needs to be kept.
+     *
+     * @param prefix The prefix of the keys to visit. The empty string visits all
+     *               entries.
+     * @param action The action to perform for each entry.
+     */
+    public void forEachWithPrefix(@NonNull CharSequence prefix,
+            @NonNull BiConsumer<? super CharSequence, ? super V> action) {
+        var node = root;
+        int index = 0;
+        var keyBuffer = new StringBuilder(Math.max(16, prefix.length() * 2));
+
+        while (index < prefix.length()) {
+            var child = node.childStartingWith(fold(prefix.charAt(index)));
+            if (child == null) {
+                return;
+            }
+            int matched = matchLength(child.label, prefix, index);
+
+            if (matched < child.label.length() && index + matched < prefix.length()) {
+                return;
+            }
+            keyBuffer.append(child.label);
+            index += child.label.length();
+            node = child;
+        }
+        visit(node, keyBuffer, action);
+    }
+
+    /**
+     * Performs the action for each entry, in lexicographic order of the keys.
+     *
+     * @param action The action to perform for each entry.
+     * @see #forEachWithPrefix(CharSequence, BiConsumer)
+     */
+    public void forEach(@NonNull BiConsumer<? super CharSequence, ? super V> action) {
+        forEachWithPrefix("", action);
+    }
+
+    /**
+     * Returns the maximum distance at which a key is still considered a likely
+     * misspelling of a key of the given length: 1 for keys of up to four
+     * characters and 2 for longer keys.
+     *
+     * @param keyLength The length of the (misspelled) key.
+     * @return The maximum distance for suggestions.
+     */
+    public static int typoTolerance(int keyLength) {
+        return keyLength <= 4 ? 1 : 2;
+    }
+
+    /**
+     * Finds the keys closest to the query by Levenshtein distance, closest first
+     * and alphabetically among keys at the same distance.
+     *
+     * @param query       The key to find the closest keys to.
+     * @param maxDistance The maximum distance of the keys to find.
+     * @param limit       The maximum number of keys to return.
+     * @return The closest keys.
+     */
+    public List<String> closestKeys(@NonNull CharSequence query, int maxDistance, int limit) {
+        if (limit < 1 || maxDistance < 0 || isEmpty()) {
+            return List.of();
+        }
+        // Keys longer than this are always further away than the maximum distance,
+        // so no deeper row is ever needed.
+        var rows = new int[query.length() + maxDistance + 1][query.length() + 1];
+        for (int i = 0; i <= query.length(); i++) {
+            rows[0][i] = i;
+        }
+        var matches = new ArrayList<KeyDistance>();
+        collectClosestKeys(root, query, maxDistance, rows, 0, new StringBuilder(), matches);
+
+        matches.sort(BY_DISTANCE_THEN_KEY);
+        var result = new ArrayList<String>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            result.add(matches.get(i).key);
+        }
+        return result;
+    }
+
+    private void collectClosestKeys(Node<V> node, CharSequence query, int maxDistance, int[][] rows, int depth,
+            StringBuilder keyBuffer, List<KeyDistance> matches) {
+        int queryLength = query.length();
+
+        for (int labelIndex = 0; labelIndex < node.label.length(); labelIndex++) {
+            if (depth + 1 >= rows.length) {
+                return;
+            }
+            char keyChar = node.label.charAt(labelIndex);
+            int[] previous = rows[depth];
+            int[] current = rows[++depth];
+            current[0] = depth;
+            int rowMin = depth;
+
+            for (int i = 1; i <= queryLength; i++) {
+                int substitution = previous[i - 1] + (fold(query.charAt(i - 1)) == keyChar ? 0 : 1);
+                int value = Math.min(substitution, Math.min(previous[i], current[i - 1]) + 1);
+                current[i] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxDistance) {
+                return;
+            }
+        }
+        int length = keyBuffer.length();
+        keyBuffer.append(node.label);
+
+        if (node.value != null && rows[depth][queryLength] <= maxDistance) {
+            matches.add(new KeyDistance(keyBuffer.toString(), rows[depth][queryLength]));
+        }
+        for (var child : node.children) {
+            collectClosestKeys(child, query, maxDistance, rows, depth, keyBuffer, matches);
+        }
+        keyBuffer.setLength(length);
+    }
+
+    private V put(Node<V> node, String key, int index, V value) {
+        if (index == key.length()) {
+            var previous = node.value;
+            node.value = value;
+            if (previous == null) {
+                node.count++;
+            }
+            return previous;
+        }
+        int childIndex = node.indexOfChild(key.charAt(index));
+
+        if (childIndex < 0) {
+            var leaf = new Node<V>(key.substring(index));
+            leaf.value = value;
+            leaf.count = 1;
+            node.insertChild(-childIndex - 1, leaf);
+            node.count++;
+            return null;
+        }
+        var child = node.children[childIndex];
+        int matched = matchLength(child.label, key, index);
+
+        if (matched < child.label.length()) {
+            // Split the edge, so that the key's path ends in or passes a new node.
+            var intermediate = new Node<V>(child.label.substring(0, matched));
+            child.label = child.label.substring(matched);
+            intermediate.children = newChildren(child);
+            intermediate.count = child.count;
+            node.children[childIndex] = intermediate;
+            child = intermediate;
+        }
+        var previous = put(child, key, index + matched, value);
+        if (previous == null) {
+            node.count++;
+        }
+        return previous;
+    }
+
+    private V remove(Node<V> node, CharSequence key, int index) {
+        if (index == key.length()) {
+            var previous = node.value;
+            if (previous != null) {
+                node.value = null;
+                node.count--;
+            }
+            return previous;
+        }
+        int childIndex = node.indexOfChild(fold(key.charAt(index)));
+        if (childIndex < 0) {
+            return null;
+        }
+        var child = node.children[childIndex];
+        if (!labelMatches(child.label, key, index)) {
+            return null;
+        }
+        var previous = remove(child, key, index + child.label.length());
+
+        if (previous != null) {
+            node.count--;
+
+            // Prune or merge the child if it no longer needs to be a node of its own.
+            if (child.value == null) {
+                if (child.children.length == 0) {
+                    node.removeChild(childIndex);
+                } else if (child.children.length == 1) {
+                    var grandChild = child.children[0];
+                    grandChild.label = child.label + grandChild.label;
+                    node.children[childIndex] = grandChild;
+                }
+            }
+        }
+        return previous;
+    }
+
+    private static void internLabels(Node<?> node, UnaryOperator<String> interner) {
+        node.label = interner.apply(node.label);
+        for (var child : node.children) {
+            internLabels(child, interner);
+        }
+    }
+
+    private Object findSoleValue(Node<V> node, Object found) {
+        if (node.value != null) {
+            if (found == null) {
+                found = node.value;
+            } else if (found != node.value) {
+                return AMBIGUOUS;
+            }
+        }
+        for (var child : node.children) {
+            found = findSoleValue(child, found);
+            if (found == AMBIGUOUS) {
+                return AMBIGUOUS;
+            }
+        }
+        return found;
+    }
+
+    private void visit(Node<V> node, StringBuilder keyBuffer,
+            BiConsumer<? super CharSequence, ? super V> action) {
+        if (node.value != null) {
+            action.accept(keyBuffer, node.value);
+        }
+        int length = keyBuffer.length();
+        for (var child : node.children) {
+            keyBuffer.append(child.label);
+            visit(child, keyBuffer, action);
+            keyBuffer.setLength(length);
+        }
+    }
+
+    private boolean labelMatches(String label, CharSequence key, int index) {
+        return key.length() - index >= label.length() && matchLength(label, key, index) == label.length();
+    }
+
+    private int matchLength(String label, CharSequence key, int index) {
+        int max = Math.min(label.length(), key.length() - index);
+        int matched = 0;
+        while (matched < max && label.charAt(matched) == fold(key.charAt(index + matched))) {
+            matched++;
+        }
+        return matched;
+    }
+
+    /**
+     * Folds the character the same way {@link String#equalsIgnoreCase(String)}
+     * compares characters, if this tree ignores case.
+     */
+    private char fold(char c) {
+        return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+    }
+
+    private String foldAll(String key) {
+        var folded = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            folded.append(fold(key.charAt(i)));
+        }
+        return folded.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] newChildren(Node<V> child) {
+        var children = (Node<V>[]) new Node<?>[1];
+        children[0] = child;
+        return children;
+    }
+
+    /**
+     * A key found by a distance search, along with its distance to the query.
+     */
+    private static final class KeyDistance {
+
+        private final String key;
+        private final int distance;
+
+        private KeyDistance(String key, int distance) {
+            this.key = key;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * A node in the tree.
+     *
+     * @param <V> The type of the values.
+     */
+    private static final class Node<V> {
+
+        private static final Node<?>[] NO_CHILDREN = new Node<?>[0];
+
+        /**
+         * The part of the key along the edge leading to this node. Only the root has
+         * an empty label.
+         */
+        private String label;
+
+        /**
+         * The value of the key ending at this node, or null if no key ends here.
+         */
+        private V value;
+
+        /**
+         * This node's children, sorted by the first character of their label.
+         */
+        private Node<V>[] children = noChildren();
+
+        /**
+         * The number of values in this node's subtree, including its own.
+         */
+        private int count;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] noChildren() {
+            return (Node<V>[]) NO_CHILDREN;
+        }
+
+        private Node<V> childStartingWith(char c) {
+            int childIndex = indexOfChild(c);
+            return childIndex < 0 ? null : children[childIndex];
+        }
+
+        /**
+         * Binary searches the child whose label starts with the character.
+         *
+         * @return The child's index, or (-(insertion point) - 1) if there is none.
+         */
+        private int indexOfChild(char c) {
+            int low = 0;
+            int high = children.length - 1;
+
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label.charAt(0);
+
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void insertChild(int childIndex, Node<V> child) {
+            var newChildren = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(children, childIndex, newChildren, childIndex + 1, children.length - childIndex);
+            newChildren[childIndex] = child;
+            children = newChildren;
+        }
+
+        private void removeChild(int childIndex) {
+            if (children.length == 1) {
+                children = noChildren();
+                return;
+            }
+            var newChildren = Arrays.copyOf(children, children.length - 1);
+            System.arraycopy(children, childIndex + 1, newChildren, childIndex, children.length - childIndex - 1);
+            children = newChildren;
+        }
+    }
+}
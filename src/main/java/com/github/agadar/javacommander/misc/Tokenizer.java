@@ -19,17 +19,37 @@ public class Tokenizer {
      * @return A list of argument tokens.
      */
     public Collection<List<String>> tokenize(String input) {
-
         var tokenLists = new ArrayList<List<String>>();
+        for (var group : tokenizeGroups(input)) {
+            tokenLists.addAll(group);
+        }
+        return tokenLists;
+    }
+
+    /**
+     * Parses a string to groups of lists of argument tokens. Commands separated by
+     * ';' are in different groups, which are to be executed one after the other.
+     * Commands separated by '&amp;' are in the same group, which marks them as
+     * independent of each other, so that they may be executed concurrently. E.g.
+     * 'a &amp; b; c' is parsed to the groups [a, b] and [c]. Unlike ';', '&amp;'
+     * is part of a token when quoted or escaped.
+     *
+     * @param input A string to parse to groups of lists of argument tokens.
+     * @return The groups of lists of argument tokens, none of them empty.
+     */
+    public List<List<List<String>>> tokenizeGroups(String input) {
+
+        var groups = new ArrayList<List<List<String>>>();
 
         if (input == null) {
-            return tokenLists;
+            return groups;
         }
         input = input.trim();
         if (input.length() < 1) {
-            return tokenLists;
+            return groups;
         }
 
+        var curGroup = new ArrayList<List<String>>(1); // current group of token lists
         var curTokens = new ArrayList<String>(); // current token list
         var lastToken = new StringBuilder(); // current token
         boolean insideQuote = false; // are we currently within quotes?
@@ -63,28 +83,46 @@ public class Tokenizer {
                     lastToken.append(c);
                 }
             } // Else if the character is ';', then that means we're going for a new token
-              // list.
+              // list in a new group.
             else if (c == ';') {
-                if (lastToken.length() > 0) {
-                    curTokens.add(lastToken.toString());
-                    lastToken.delete(0, lastToken.length());
-                }
-                if (curTokens.size() > 0) {
-                    tokenLists.add(curTokens);
-                    curTokens = new ArrayList<>();
+                curTokens = endTokenList(lastToken, curTokens, curGroup);
+                if (curGroup.size() > 0) {
+                    groups.add(curGroup);
+                    curGroup = new ArrayList<>(1);
                 }
+            } // Else if the character is an unquoted '&', then that means we're going for a
+              // new token list in the same group.
+            else if (c == '&' && !insideQuote) {
+                curTokens = endTokenList(lastToken, curTokens, curGroup);
             } // Else, append to the token.
             else {
                 lastToken.append(c);
             }
         }
-        // Add the last token to the list and then return the list.
+        // Add the last token list to the last group and then return the groups.
+        endTokenList(lastToken, curTokens, curGroup);
+        if (curGroup.size() > 0) {
+            groups.add(curGroup);
+        }
+        return groups;
+    }
+
+    /**
+     * Adds the last token to the token list and the token list to the group, if
+     * they are not empty.
+     *
+     * @return The token list to continue with.
+     */
+    private static ArrayList<String> endTokenList(StringBuilder lastToken, ArrayList<String> curTokens,
+            List<List<String>> curGroup) {
         if (lastToken.length() > 0) {
             curTokens.add(lastToken.toString());
+            lastToken.delete(0, lastToken.length());
         }
         if (curTokens.size() > 0) {
-            tokenLists.add(curTokens);
+            curGroup.add(curTokens);
+            return new ArrayList<>();
         }
-        return tokenLists;
+        return curTokens;
     }
 }
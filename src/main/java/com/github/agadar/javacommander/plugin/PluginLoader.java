@@ -0,0 +1,361 @@
+package com.github.agadar.javacommander.plugin;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+import com.github.agadar.javacommander.JavaCommander;
+import com.github.agadar.javacommander.JcCommand;
+import com.github.agadar.javacommander.annotation.parser.CommandAnnotationParser;
+import com.github.agadar.javacommander.exception.JavaCommanderException;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registers the commands in the jars in a directory, and keeps them up to date
+ * while jars are added to, replaced in and removed from the directory, without
+ * restarting the application.
+ * <p>
+ * Each jar is loaded by a class loader of its own, whose parent is the class
+ * loader of this class. The static annotated methods of each class in the jar
+ * are registered, as are the non-static ones of a new instance of each class
+ * that has a public constructor without parameters. Jars are parsed on the
+ * loader's own thread, and their commands are swapped into the registry through
+ * {@link JavaCommander#updateRegistry}, so that commands being executed
+ * meanwhile are unaffected. A replaced jar's old commands are replaced by its
+ * new ones in the same update.
+ * <p>
+ * The class loader reads a private copy of the jar rather than the jar itself,
+ * so that the jar can be overwritten while it is loaded. Once a jar is removed
+ * or replaced, its class loader is closed and its copy deleted; the class loader
+ * and its classes are garbage collected once no executions or objects refer to
+ * them anymore.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+@Slf4j
+public class PluginLoader implements Closeable {
+
+    /**
+     * How long the directory has to be quiet before changes are processed, so that
+     * a jar that is still being written is not loaded for every part written.
+     */
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    /**
+     * The JavaCommander instance whose registry the commands are registered in.
+     */
+    @Getter
+    private final JavaCommander javaCommander;
+
+    /**
+     * The directory containing the plugin jars.
+     */
+    @Getter
+    private final Path directory;
+
+    private final CommandAnnotationParser commandAnnotationParser;
+
+    /**
+     * The loaded plugins, each mapped to the path of its jar.
+     */
+    private final Map<Path, Plugin> plugins = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * Constructor.
+     *
+     * @param javaCommander The JavaCommander instance whose registry the commands
+     *                      are registered in.
+     * @param directory     The directory containing the plugin jars.
+     */
+    public PluginLoader(@NonNull JavaCommander javaCommander, @NonNull Path directory) {
+        this.javaCommander = javaCommander;
+        this.directory = directory.toAbsolutePath();
+        this.commandAnnotationParser = new CommandAnnotationParser(javaCommander.getRegistry().isIgnoreCase());
+    }
+
+    /**
+     * Loads the jars currently in the directory, and then starts watching the
+     * directory for changes on a daemon thread.
+     *
+     * @throws IOException           If the directory could not be read or watched.
+     * @throws IllegalStateException If this loader was already started.
+     */
+    public synchronized void start() throws IOException, IllegalStateException {
+        if (watchService != null) {
+            throw new IllegalStateException("This plugin loader was already started");
+        }
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        synchronize(listJars());
+
+        watcher = new Thread(this::watch, "plugin-loader " + directory.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Returns the paths of the jars whose commands are currently registered.
+     *
+     * @return The paths of the loaded jars.
+     */
+    public synchronized Set<Path> getLoadedPlugins() {
+        return Set.copyOf(plugins.keySet());
+    }
+
+    /**
+     * Stops watching the directory, and unregisters the commands of all loaded
+     * jars.
+     *
+     * @throws IOException If the directory watcher could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        Thread watcherToJoin;
+        synchronized (this) {
+            if (watchService != null) {
+                watchService.close();
+            }
+            watcherToJoin = watcher;
+        }
+        if (watcherToJoin != null && watcherToJoin != Thread.currentThread()) {
+            try {
+                watcherToJoin.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            for (var jar : List.copyOf(plugins.keySet())) {
+                unload(jar);
+            }
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                var changedJars = new LinkedHashSet<Path>();
+                var key = watchService.take();
+
+                // Gather changes until the directory is quiet.
+                while (key != null) {
+                    if (!collectChanges(key, changedJars)) {
+                        changedJars.addAll(listJars());
+                        changedJars.addAll(getLoadedPlugins());
+                    }
+                    key.reset();
+                    key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                synchronize(changedJars);
+            }
+        } catch (ClosedWatchServiceException ex) {
+            // The loader was closed.
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            log.error("An error occurred while listing the plugins in {}", directory, ex);
+        }
+    }
+
+    /**
+     * Adds the jars changed according to the key's events to the set.
+     *
+     * @return False if events were lost, in which case any jar may have changed.
+     */
+    private boolean collectChanges(WatchKey key, Set<Path> changedJars) {
+        boolean complete = true;
+        for (var event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                complete = false;
+            } else {
+                var jar = directory.resolve((Path) event.context());
+                if (isJar(jar)) {
+                    changedJars.add(jar);
+                }
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Loads, reloads or unloads each of the jars, depending on whether it still
+     * exists.
+     */
+    private synchronized void synchronize(Collection<Path> jars) {
+        for (var jar : jars) {
+            if (Files.isRegularFile(jar)) {
+                load(jar);
+            } else if (plugins.containsKey(jar)) {
+                unload(jar);
+            }
+        }
+    }
+
+    private void load(Path jar) {
+        Plugin plugin;
+        try {
+            plugin = Plugin.load(jar, commandAnnotationParser);
+        } catch (IOException | JavaCommanderException | RuntimeException | LinkageError ex) {
+            // A jar that is still being written is loaded again once it is complete.
+            log.error("An error occurred while loading the plugin {}", jar, ex);
+            return;
+        }
+        var replacedPlugin = plugins.get(jar);
+        try {
+            javaCommander.updateRegistry(registry -> {
+                if (replacedPlugin != null) {
+                    registry.unregisterAll(replacedPlugin.targets);
+                }
+                registry.registerDirectly(plugin.commands);
+            });
+        } catch (JavaCommanderException | RuntimeException ex) {
+            log.error("An error occurred while registering the plugin {}", jar, ex);
+            plugin.close();
+            return;
+        }
+        plugins.put(jar, plugin);
+        if (replacedPlugin != null) {
+            replacedPlugin.close();
+        }
+        log.info("Loaded {} commands from the plugin {}", plugin.commands.size(), jar);
+    }
+
+    private void unload(Path jar) {
+        var plugin = plugins.remove(jar);
+        try {
+            javaCommander.updateRegistry(registry -> registry.unregisterAll(plugin.targets));
+        } catch (JavaCommanderException | RuntimeException ex) {
+            log.error("An error occurred while unregistering the plugin {}", jar, ex);
+        }
+        plugin.close();
+        log.info("Unloaded the plugin {}", jar);
+    }
+
+    private List<Path> listJars() throws IOException {
+        try (var paths = Files.list(directory)) {
+            return paths.filter(PluginLoader::isJar).toList();
+        }
+    }
+
+    private static boolean isJar(Path path) {
+        return path.getFileName().toString().endsWith(".jar");
+    }
+
+    /**
+     * The class loader of a loaded jar, and the commands parsed from it.
+     */
+    private static final class Plugin {
+
+        private final URLClassLoader classLoader;
+        private final Path copy;
+
+        /**
+         * The classes and objects the commands are invoked on.
+         */
+        private final List<Object> targets = new ArrayList<>();
+        private final List<JcCommand> commands = new ArrayList<>();
+
+        private Plugin(URLClassLoader classLoader, Path copy) {
+            this.classLoader = classLoader;
+            this.copy = copy;
+        }
+
+        private static Plugin load(Path jar, CommandAnnotationParser parser)
+                throws IOException, JavaCommanderException {
+            var copy = Files.createTempFile("plugin-", ".jar");
+            List<String> classNames;
+            try {
+                Files.copy(jar, copy, StandardCopyOption.REPLACE_EXISTING);
+                classNames = listClassNames(copy);
+            } catch (IOException ex) {
+                Files.deleteIfExists(copy);
+                throw ex;
+            }
+            var plugin = new Plugin(
+                    new URLClassLoader(new URL[] { copy.toUri().toURL() }, PluginLoader.class.getClassLoader()), copy);
+            try {
+                for (var className : classNames) {
+                    plugin.parse(Class.forName(className, false, plugin.classLoader), parser);
+                }
+            } catch (ClassNotFoundException ex) {
+                plugin.close();
+                throw new IOException(ex);
+            } catch (JavaCommanderException | RuntimeException | LinkageError ex) {
+                plugin.close();
+                throw ex;
+            }
+            if (plugin.commands.isEmpty()) {
+                log.warn("The plugin {} contains no commands", jar);
+            }
+            return plugin;
+        }
+
+        private void parse(Class<?> clazz, CommandAnnotationParser parser) throws JavaCommanderException {
+            var staticCommands = parser.parseFromClass(clazz);
+            if (!staticCommands.isEmpty()) {
+                targets.add(clazz);
+                commands.addAll(staticCommands);
+            }
+            if (parser.parseMetadataFromType(clazz).isEmpty() || clazz.isInterface()
+                    || Modifier.isAbstract(clazz.getModifiers())) {
+                return;
+            }
+            Object object;
+            try {
+                object = clazz.getConstructor().newInstance();
+            } catch (ReflectiveOperationException ex) {
+                log.warn("Skipped the non-static commands of {}, as it could not be instantiated", clazz, ex);
+                return;
+            }
+            targets.add(object);
+            commands.addAll(parser.parseFromObject(object));
+        }
+
+        private static List<String> listClassNames(Path jar) throws IOException {
+            try (var jarFile = new JarFile(jar.toFile())) {
+                return jarFile.stream()
+                        .map(entry -> entry.getName())
+                        .filter(name -> name.endsWith(".class") && !name.endsWith("module-info.class"))
+                        .map(name -> name.substring(0, name.length() - ".class".length()).replace('/', '.'))
+                        .toList();
+            }
+        }
+
+        private void close() {
+            try {
+                classLoader.close();
+                Files.deleteIfExists(copy);
+            } catch (IOException ex) {
+                log.error("An error occurred while closing the class loader of {}", copy, ex);
+            }
+        }
+    }
+}
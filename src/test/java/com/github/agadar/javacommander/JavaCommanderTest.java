@@ -1,15 +1,46 @@
 package com.github.agadar.javacommander;
 
+import com.github.agadar.javacommander.example.ExampleCommands;
+import com.github.agadar.javacommander.exception.CommandInvocationException;
+import com.github.agadar.javacommander.exception.CommandTimeoutException;
 import com.github.agadar.javacommander.exception.JavaCommanderException;
+import com.github.agadar.javacommander.exception.NoValueForOptionException;
+import com.github.agadar.javacommander.exception.OptionValueParserException;
+import com.github.agadar.javacommander.exception.StaleScriptException;
+import com.github.agadar.javacommander.exception.UnknownCommandException;
+import com.github.agadar.javacommander.exception.UnknownOptionException;
+import com.github.agadar.javacommander.misc.ArgumentsParser;
+import com.github.agadar.javacommander.misc.Tokenizer;
 import com.github.agadar.javacommander.testclass.AnnotatedClass;
 import com.github.agadar.javacommander.testclass.DataClass;
+import com.github.agadar.javacommander.testclass.NestedAnnotatedClass;
+import com.github.agadar.javacommander.testclass.ReturningAnnotatedClass;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
-
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Tests com.github.agadar.javacommander.JavaCommander.
@@ -461,6 +492,693 @@ public class JavaCommanderTest {
         assertArguments("someString", true, false);
     }
 
+    /**
+     * Test of execute method, of class JavaCommander testing abbreviated command
+     * names.
+     */
+    @Test
+    public void testExecute_String_abbreviated() throws JavaCommanderException {
+        System.out.println("execute_String_abbreviated");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander();
+        jcCommander.registerFromObject(foo);
+
+        // Test calls.
+        jcCommander.execute("barWithD someString 15 true");
+        assertArguments("someString", 15, true);
+        jcCommander.execute("barN someString");
+        assertArguments("someString");
+        assertThrows(UnknownCommandException.class, () -> jcCommander.execute("barWith someString"));
+    }
+
+    /**
+     * Test of execute method, of class JavaCommander testing the suggestions for
+     * unknown command and option names.
+     */
+    @Test
+    public void testExecute_String_suggestions() throws JavaCommanderException {
+        System.out.println("execute_String_suggestions");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander();
+        jcCommander.registerFromObject(foo);
+
+        // Test calls.
+        var unknownCommand = assertThrows(UnknownCommandException.class,
+                () -> jcCommander.execute("barWithParms someString 15 true"));
+        assertEquals("barWithParms", unknownCommand.getCommandName());
+        assertEquals(List.of("barWithParams"), unknownCommand.getSuggestions());
+
+        var unknownOption = assertThrows(UnknownOptionException.class,
+                () -> jcCommander.execute("barWithParams StringParam someString IntParm 15"));
+        assertEquals("IntParm", unknownOption.getOptionName());
+        assertEquals(List.of("IntParam", "intParam"), unknownOption.getSuggestions());
+    }
+
+    /**
+     * Test of execute method, of class JavaCommander testing sub-commands.
+     */
+    @Test
+    public void testExecute_String_subCommands() throws JavaCommanderException {
+        System.out.println("execute_String_subCommands");
+
+        // Setup JavaCommander instance.
+        var nested = new NestedAnnotatedClass();
+        var jcCommander = new JavaCommander();
+        jcCommander.registerFromObject(nested);
+
+        // Test calls.
+        jcCommander.execute("remote -verbose");
+        assertArrayEquals(new Object[] { "remote", true }, nested.getLatestCall());
+        jcCommander.execute("remote add origin example.com/repo.git");
+        assertArrayEquals(new Object[] { "remoteAdd", "origin", "example.com/repo.git" }, nested.getLatestCall());
+        jcCommander.execute("rem new -url example.com/repo.git -name origin");
+        assertArrayEquals(new Object[] { "remoteAdd", "origin", "example.com/repo.git" }, nested.getLatestCall());
+        jcCommander.execute("remote remove origin");
+        assertArrayEquals(new Object[] { "remoteRemove", "origin" }, nested.getLatestCall());
+        jcCommander.execute("config get user.name");
+        assertArrayEquals(new Object[] { "configGet", "user.name" }, nested.getLatestCall());
+
+        var unknownSubCommand = assertThrows(UnknownCommandException.class, () -> jcCommander.execute("config gt"));
+        assertEquals("config gt", unknownSubCommand.getCommandName());
+        assertEquals(List.of("config get"), unknownSubCommand.getSuggestions());
+
+        var missingSubCommand = assertThrows(UnknownCommandException.class, () -> jcCommander.execute("config"));
+        assertEquals("config", missingSubCommand.getCommandName());
+        assertEquals(List.of("config get"), missingSubCommand.getSuggestions());
+    }
+
+    /**
+     * Test of execute method, of class JavaCommander testing case-insensitive
+     * command and option names.
+     */
+    @Test
+    public void testExecute_String_ignoreCase() throws JavaCommanderException {
+        System.out.println("execute_String_ignoreCase");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander(new JcRegistry(true), new ArgumentsParser(), new Tokenizer());
+        jcCommander.registerFromObject(foo);
+
+        // Test calls.
+        jcCommander.execute("BARWITHPARAMS STRINGPARAM someString intparam 15 BoolParam true");
+        assertArguments("someString", 15, true);
+        jcCommander.execute("barwithd someString 15 true");
+        assertArguments("someString", 15, true);
+        jcCommander.execute("BARWITHFLAGS 'someString' FLAG1 flag2");
+        assertArguments("someString", true, false);
+
+        var unknownCommand = assertThrows(UnknownCommandException.class,
+                () -> jcCommander.execute("BARWITHPARMS someString 15 true"));
+        assertEquals(List.of("BarWithParams"), unknownCommand.getSuggestions());
+    }
+
+    /**
+     * Test of execute method, of class JavaCommander testing commands whose
+     * objects are resolved from the execution context.
+     */
+    @Test
+    public void testExecute_String_context() throws JavaCommanderException {
+        System.out.println("execute_String_context");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander();
+        jcCommander.registerFromType(NestedAnnotatedClass.class);
+        var firstSession = new NestedAnnotatedClass();
+        var secondSession = new NestedAnnotatedClass();
+
+        // Test calls.
+        jcCommander.execute("remote add origin example.com/repo.git", new ExecutionContext(firstSession));
+        jcCommander.execute("remote remove origin", new ExecutionContext(secondSession));
+        assertArrayEquals(new Object[] { "remoteAdd", "origin", "example.com/repo.git" },
+                firstSession.getLatestCall());
+        assertArrayEquals(new Object[] { "remoteRemove", "origin" }, secondSession.getLatestCall());
+
+        jcCommander.execute("config get user.name", new ExecutionContext(type -> secondSession));
+        assertArrayEquals(new Object[] { "configGet", "user.name" }, secondSession.getLatestCall());
+
+        assertThrows(CommandInvocationException.class, () -> jcCommander.execute("remote"));
+        assertThrows(CommandInvocationException.class,
+                () -> jcCommander.execute("remote", new ExecutionContext(foo)));
+
+        jcCommander.unregisterFromType(NestedAnnotatedClass.class);
+        assertEquals(0, jcCommander.getCommands().size());
+    }
+
+    /**
+     * Test of updateRegistry method, of class JavaCommander.
+     */
+    @Test
+    public void testUpdateRegistry() throws JavaCommanderException {
+        System.out.println("updateRegistry");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander();
+        var oldSession = new NestedAnnotatedClass();
+        var newSession = new NestedAnnotatedClass();
+        jcCommander.registerFromObject(oldSession);
+        var oldRegistry = jcCommander.getRegistry();
+
+        // Reload the commands in one step.
+        jcCommander.updateRegistry(registry -> {
+            registry.unregisterFromObject(oldSession);
+            registry.registerFromObject(newSession);
+        });
+        assertNotSame(oldRegistry, jcCommander.getRegistry());
+        jcCommander.execute("remote remove origin");
+        assertArrayEquals(new Object[] { "remoteRemove", "origin" }, newSession.getLatestCall());
+        assertArrayEquals(new Object[0], oldSession.getLatestCall());
+        assertTrue(oldRegistry.getCommand("remote remove").get().isMyObject(oldSession));
+
+        // A failed update leaves the registry unchanged.
+        var currentRegistry = jcCommander.getRegistry();
+        assertThrows(UnknownCommandException.class, () -> jcCommander.updateRegistry(registry -> {
+            registry.unregisterFromObject(newSession);
+            throw new UnknownCommandException("remote");
+        }));
+        assertSame(currentRegistry, jcCommander.getRegistry());
+        assertTrue(jcCommander.getCommand("remote").isPresent());
+
+        // An update of a frozen registry is frozen as well.
+        jcCommander.freeze();
+        jcCommander.updateRegistry(registry -> registry.unregisterFromObject(newSession));
+        assertTrue(jcCommander.getRegistry().isFrozen());
+        assertEquals(0, jcCommander.getCommands().size());
+    }
+
+    /**
+     * Test of compile method, of class JavaCommander.
+     */
+    @Test
+    public void testCompile() throws JavaCommanderException, InterruptedException, ExecutionException {
+        System.out.println("compile");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander();
+        var returning = new ReturningAnnotatedClass();
+        jcCommander.registerFromObject(returning);
+
+        // The compiled script can be run repeatedly.
+        var script = jcCommander.compile("echo -text one; storeUser; countUsers");
+        assertEquals("echo -text one; storeUser; countUsers", script.getSource());
+        assertFalse(script.isStale());
+        assertEquals(List.of("one", 2, 3), script.run().get());
+        assertEquals(List.of("one", 5, 6), script.run().get());
+
+        // Unknown commands are reported when compiling.
+        assertThrows(UnknownCommandException.class, () -> jcCommander.compile("echo -text one; unknown"));
+
+        // The script is stale once the registry changes.
+        jcCommander.updateRegistry(registry -> registry.registerFromObject(new NestedAnnotatedClass()));
+        assertTrue(script.isStale());
+        assertThrows(StaleScriptException.class, script::run);
+        assertEquals(6, returning.getCalls());
+    }
+
+    /**
+     * Test of compile method, of class JavaCommander, with a file to save the
+     * compiled script to.
+     */
+    @Test
+    public void testCompile_cacheFile(@TempDir Path directory)
+            throws JavaCommanderException, InterruptedException, ExecutionException, IOException {
+        System.out.println("compile_cacheFile");
+        var cacheFile = directory.resolve("script.bin");
+        var source = "echo -text one; transfer -from a -to b -amount 5; countUsers";
+
+        // The script is compiled and saved.
+        var parsedArguments = new AtomicInteger();
+        var countingParser = new ArgumentsParser() {
+
+            @Override
+            public Object[] parseArguments(List<String> args, JcCommand command)
+                    throws NoValueForOptionException, UnknownOptionException, OptionValueParserException {
+                parsedArguments.incrementAndGet();
+                return super.parseArguments(args, command);
+            }
+        };
+        var jcCommander = new JavaCommander(new JcRegistry(), countingParser, new Tokenizer());
+        jcCommander.registerFromObject(new ReturningAnnotatedClass());
+        assertEquals(List.of("one", "a->b:5", 3), jcCommander.compile(source, cacheFile).run().get());
+        assertEquals(3, parsedArguments.get());
+        assertTrue(Files.exists(cacheFile));
+
+        // Another instance with the same commands loads it without parsing it.
+        var restarted = new JavaCommander(new JcRegistry(), countingParser, new Tokenizer());
+        restarted.registerFromObject(new ReturningAnnotatedClass());
+        var loaded = restarted.compile(source, cacheFile);
+        assertEquals(3, parsedArguments.get());
+        assertEquals(List.of("one", "a->b:5", 3), loaded.run().get());
+
+        // Another script, or other commands, make it compile the script anew.
+        restarted.compile("echo -text two", cacheFile);
+        assertEquals(4, parsedArguments.get());
+        restarted.registerFromObject(new NestedAnnotatedClass());
+        assertEquals(List.of("two"), restarted.compile("echo -text two", cacheFile).run().get());
+        assertEquals(5, parsedArguments.get());
+        assertEquals(List.of("two"), restarted.compile("echo -text two", cacheFile).run().get());
+        assertEquals(5, parsedArguments.get());
+
+        // Corrupt or truncated files are compiled anew.
+        var bytes = Files.readAllBytes(cacheFile);
+        int groupCountOffset = 16 + "echo -text two".length();
+        for (var corrupt : List.of(ByteBuffer.wrap(bytes.clone()).putInt(groupCountOffset, Integer.MAX_VALUE),
+                ByteBuffer.wrap(bytes.clone()).putInt(groupCountOffset + 8, -1),
+                ByteBuffer.wrap(bytes.clone()).putInt(groupCountOffset + 12, Integer.MAX_VALUE),
+                ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 3)))) {
+            int parsedBefore = parsedArguments.get();
+            Files.write(cacheFile, corrupt.array());
+            assertEquals(List.of("two"), restarted.compile("echo -text two", cacheFile).run().get());
+            assertEquals(parsedBefore + 1, parsedArguments.get());
+        }
+    }
+
+    /**
+     * Test of prepare method, of class JavaCommander.
+     */
+    @Test
+    public void testPrepare() throws JavaCommanderException {
+        System.out.println("prepare");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander();
+        var returning = new ReturningAnnotatedClass();
+        jcCommander.registerFromObject(returning);
+
+        // The placeholders are bound before each execution.
+        var transfer = jcCommander.prepare("transfer -from ? -to bob -amount ?");
+        assertEquals(2, transfer.getPlaceholderCount());
+        assertThrows(NoValueForOptionException.class, transfer::execute);
+        assertEquals("alice->bob:100", transfer.bind(0, "alice").bind(1, 100).execute());
+        assertEquals("alice->bob:250", transfer.bind(1, 250L).execute());
+        assertEquals("carol->bob:7", transfer.bind(0, "carol").bind(1, Long.valueOf(7)).execute());
+
+        // Values of the wrong type are refused.
+        assertThrows(IllegalArgumentException.class, () -> transfer.bind(1, 2.5));
+        assertThrows(IllegalArgumentException.class, () -> transfer.bind(0, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> transfer.bind(2, 5));
+
+        // Placeholders work for implicitly named options as well.
+        var express = jcCommander.prepare("transfer dave erin ? ?");
+        assertEquals("dave->erin:1!", express.bind(0, 1).bind(1, true).execute());
+
+        // The prepared command is stale once the registry changes.
+        jcCommander.updateRegistry(registry -> registry.registerFromObject(new NestedAnnotatedClass()));
+        assertTrue(transfer.isStale());
+        assertThrows(StaleScriptException.class, transfer::execute);
+        assertThrows(IllegalArgumentException.class, () -> jcCommander.prepare("echo -text ?; echo -text ?"));
+    }
+
+    /**
+     * Test of executeAsync method, of class JavaCommander.
+     */
+    @Test
+    public void testExecuteAsync_String() throws JavaCommanderException, InterruptedException, ExecutionException {
+        System.out.println("executeAsync_String");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander();
+        var returning = new ReturningAnnotatedClass();
+        jcCommander.registerFromObject(returning);
+
+        // Test calls.
+        assertEquals(List.of("hello"), jcCommander.executeAsync("echo hello").get());
+        assertNotSame(Thread.currentThread(), returning.getLatestThread());
+        assertEquals(List.of("one", "two"), jcCommander.executeAsync("echo one; echo two").get());
+        assertEquals("three", jcCommander.executeAsync(List.of("echo", "three")).get());
+
+        // A failed command skips the commands after it.
+        var failure = assertThrows(ExecutionException.class,
+                () -> jcCommander.executeAsync("fail; echo four").get());
+        assertEquals(CommandInvocationException.class, failure.getCause().getClass());
+        assertEquals(5, returning.getCalls());
+
+        // Unknown commands fail before anything is invoked.
+        assertThrows(UnknownCommandException.class, () -> jcCommander.executeAsync("echo five; ech0 six"));
+        assertEquals(5, returning.getCalls());
+    }
+
+    /**
+     * Test of execute method, of class JavaCommander testing the values returned
+     * by commands.
+     */
+    @Test
+    public void testExecute_String_results() throws JavaCommanderException {
+        System.out.println("execute_String_results");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander();
+        jcCommander.registerFromObject(foo);
+        jcCommander.registerFromObject(new ReturningAnnotatedClass());
+
+        // Test calls.
+        assertEquals("hello", jcCommander.execute(List.of("echo", "hello")));
+        assertEquals(null, jcCommander.execute(List.of("bar")));
+        assertEquals(Arrays.asList("one", null, "two"), jcCommander.execute("echo one; bar; echo two").join());
+        assertEquals(List.of(), jcCommander.execute(";").join());
+    }
+
+    /**
+     * Test of execute method, of class JavaCommander testing commands that write
+     * to an output buffer.
+     */
+    @Test
+    public void testExecute_String_output() throws JavaCommanderException {
+        System.out.println("execute_String_output");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander();
+        jcCommander.registerFromObject(new ReturningAnnotatedClass());
+        jcCommander.registerFromObject(new ExampleCommands(jcCommander));
+
+        // Output goes to the buffer of the context.
+        var output = new CommandOutput();
+        var context = ExecutionContext.EMPTY.withOutput(output);
+        jcCommander.execute("greet World; greet -name Agadar", context);
+        assertEquals("Hello, World!" + System.lineSeparator() + "Hello, Agadar!" + System.lineSeparator(),
+                output.toString());
+
+        output.clear();
+        jcCommander.execute("help -command greet", context);
+        assertTrue(output.toString().contains("greetDescription"));
+        assertTrue(output.toString().contains("-name"));
+
+        // Without a buffer, output is printed to System.out.
+        var originalOut = System.out;
+        var printed = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(printed, true));
+            jcCommander.execute("greet World");
+        } finally {
+            System.setOut(originalOut);
+        }
+        assertEquals("Hello, World!" + System.lineSeparator(), printed.toString());
+    }
+
+    /**
+     * Test of execute method, of class JavaCommander testing commands that return
+     * a CompletionStage.
+     */
+    @Test
+    public void testExecute_String_completionStage()
+            throws JavaCommanderException, InterruptedException, ExecutionException {
+        System.out.println("execute_String_completionStage");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander();
+        var returning = new ReturningAnnotatedClass();
+        jcCommander.registerFromObject(returning);
+
+        // The next command waits for the stage without blocking the caller.
+        var future = jcCommander.execute("later one; echo two");
+        assertFalse(future.isDone());
+        assertEquals(1, returning.getCalls());
+        returning.getRelease().complete(null);
+        assertEquals(List.of("one", "two"), future.get());
+        assertEquals(2, returning.getCalls());
+
+        // Completed stages are unwrapped right away.
+        future = jcCommander.execute("echo one; later two");
+        assertTrue(future.isDone());
+        assertEquals(List.of("one", "two"), future.get());
+        assertEquals(List.of("three"), jcCommander.executeAsync("later three").get());
+
+        // A failed stage skips the commands after it.
+        var failing = new ReturningAnnotatedClass();
+        jcCommander.unregisterFromObject(returning);
+        jcCommander.registerFromObject(failing);
+        future = jcCommander.execute("later one; echo two");
+        failing.getRelease().completeExceptionally(new IllegalStateException("failed"));
+        var failure = assertThrows(ExecutionException.class, future::get);
+        assertEquals(IllegalStateException.class, failure.getCause().getClass());
+        assertEquals(1, failing.getCalls());
+    }
+
+    /**
+     * Test of execute method, of class JavaCommander, with commands separated by
+     * '&amp;' that are executed concurrently.
+     */
+    @Test
+    public void testExecute_String_concurrentGroup()
+            throws JavaCommanderException, InterruptedException, ExecutionException {
+        System.out.println("execute_String_concurrentGroup");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander();
+        var returning = new ReturningAnnotatedClass();
+        jcCommander.registerFromObject(returning);
+
+        // The commands of a group meet each other, so they run at the same time.
+        assertEquals(List.of("met", "met", "three"), jcCommander.execute("meet & meet; echo three").get());
+        assertEquals(List.of("one", "met", "met"), jcCommander.executeAsync("echo one; meet & meet").get());
+
+        // The outputs of a group are appended in order.
+        var output = new CommandOutput();
+        jcCommander.execute("greet -name a & greet -name b; greet -name c", ExecutionContext.EMPTY.withOutput(output))
+                .get();
+        var lineSeparator = System.lineSeparator();
+        assertEquals("Hello, a!" + lineSeparator + "Hello, b!" + lineSeparator + "Hello, c!" + lineSeparator,
+                output.toString());
+
+        // A failed command cancels the rest of its group and skips the later commands.
+        int calls = returning.getCalls();
+        var future = jcCommander.execute("block & failBlocked; echo three");
+        var failure = assertThrows(ExecutionException.class, future::get);
+        assertEquals(CommandInvocationException.class, failure.getCause().getClass());
+        assertTrue(returning.isInterrupted());
+        assertEquals(calls + 2, returning.getCalls());
+
+        // A failed group still waits for the stages its commands returned.
+        var awaiting = new ReturningAnnotatedClass();
+        var awaitingCommander = new JavaCommander();
+        awaitingCommander.registerFromObject(awaiting);
+        var awaitingFuture = awaitingCommander.execute("await & failBlocked");
+        while (awaiting.getCalls() < 2) {
+            Thread.onSpinWait();
+        }
+        Thread.sleep(100);
+        assertFalse(awaitingFuture.isDone());
+        awaiting.getRelease().complete(null);
+        var awaitingFailure = assertThrows(ExecutionException.class, awaitingFuture::get);
+        assertEquals(CommandInvocationException.class, awaitingFailure.getCause().getClass());
+    }
+
+    /**
+     * Test of execute method, of class JavaCommander, with commands that declare
+     * the resources they read and write.
+     */
+    @Test
+    public void testExecute_String_resources()
+            throws JavaCommanderException, InterruptedException, ExecutionException {
+        System.out.println("execute_String_resources");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander();
+        var returning = new ReturningAnnotatedClass();
+        jcCommander.registerFromObject(returning);
+
+        // Readers meet each other, and writers wait for the readers before them.
+        assertEquals(List.of("met", "met", 3, 4), jcCommander.execute("meetUsers; meetUsers; storeUser; countUsers")
+                .get());
+        assertEquals(List.of(5, "met", "met", 8), jcCommander.executeAsync("storeUser; meetUsers; meetUsers; storeUser")
+                .get());
+
+        // Commands that declare no resources are executed on their own.
+        var future = jcCommander.execute("storeUser; echo -text two; storeUser");
+        assertTrue(future.isDone());
+        assertEquals(List.of(9, "two", 11), future.get());
+
+        // Each command is found once, also when the command after a segment is not found.
+        var resolutions = new AtomicInteger();
+        var countingRegistry = new JcRegistry() {
+
+            @Override
+            public JcCommand resolveCommand(List<String> argumentTokens) throws UnknownCommandException {
+                resolutions.incrementAndGet();
+                return super.resolveCommand(argumentTokens);
+            }
+        };
+        var countingCommander = new JavaCommander(countingRegistry, new ArgumentsParser(), new Tokenizer());
+        countingCommander.registerFromObject(returning);
+        assertEquals(List.of(12, "two", 14), countingCommander.execute("storeUser; echo -text two; countUsers").get());
+        assertEquals(3, resolutions.get());
+
+        // The failure is thrown right away if the segment has already finished by then.
+        assertThrows(UnknownCommandException.class, () -> {
+            try {
+                countingCommander.execute("storeUser; countUsers; nope").join();
+            } catch (CompletionException ex) {
+                throw ex.getCause();
+            }
+        });
+        assertEquals(6, resolutions.get());
+        assertEquals(16, returning.getCalls());
+    }
+
+    /**
+     * Test of executeAsync method, of class JavaCommander, with commands that have
+     * a partition key.
+     */
+    @Test
+    public void testExecuteAsync_String_partitionKey()
+            throws JavaCommanderException, InterruptedException, ExecutionException {
+        System.out.println("executeAsync_String_partitionKey");
+
+        // Setup JavaCommander instance, with lanes that run on the calling thread.
+        var jcCommander = new JavaCommander(new JcRegistry(), new ArgumentsParser(), new Tokenizer(), Runnable::run, 2);
+        var returning = new ReturningAnnotatedClass();
+        jcCommander.registerFromObject(returning);
+
+        // A command waiting for its stage holds up the commands with the same key only.
+        var first = jcCommander.executeAsync("record -key a -value later");
+        var second = jcCommander.executeAsync("record -key a -value second");
+        var third = jcCommander.executeAsync("record -key b -value third");
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+        assertEquals(List.of("third"), third.get());
+        assertEquals(List.of("a later", "b third"), returning.getRecords());
+
+        returning.getRelease().complete(null);
+        assertEquals(List.of("later"), first.get());
+        assertEquals(List.of("second"), second.get());
+        assertEquals(List.of("a later", "b third", "a second"), returning.getRecords());
+    }
+
+    /**
+     * Test of executeAsync method, of class JavaCommander, with inputs whose
+     * commands have different partition keys, or none.
+     */
+    @Test
+    public void testExecuteAsync_String_mixedPartitionKeys()
+            throws JavaCommanderException, InterruptedException, ExecutionException {
+        System.out.println("executeAsync_String_mixedPartitionKeys");
+
+        // Setup JavaCommander instance, with lanes that run on the calling thread.
+        var jcCommander = new JavaCommander(new JcRegistry(), new ArgumentsParser(), new Tokenizer(), Runnable::run, 2);
+        var returning = new ReturningAnnotatedClass();
+        jcCommander.registerFromObject(returning);
+
+        // An input spanning both lanes waits for the first lane, and holds up the second.
+        var first = jcCommander.executeAsync("record -key a -value later");
+        var mixed = jcCommander.executeAsync("record -key b -value mixed; echo -text x; record -key a -value mixed");
+        var after = jcCommander.executeAsync("record -key b -value after");
+        assertFalse(mixed.isDone());
+        assertFalse(after.isDone());
+        assertEquals(List.of("a later"), returning.getRecords());
+
+        returning.getRelease().complete(null);
+        assertEquals(List.of("later"), first.get());
+        assertEquals(List.of("mixed", "x", "mixed"), mixed.get());
+        assertEquals(List.of("after"), after.get());
+        assertEquals(List.of("a later", "b mixed", "a mixed", "b after"), returning.getRecords());
+    }
+
+    /**
+     * Test of execute method, of class JavaCommander, with commands that do not
+     * finish in time.
+     */
+    @Test
+    public void testExecute_String_timeout() throws JavaCommanderException, InterruptedException {
+        System.out.println("execute_String_timeout");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander();
+        var returning = new ReturningAnnotatedClass();
+        jcCommander.registerFromObject(returning);
+
+        // A command overrunning its own timeout is interrupted, and the rest is skipped.
+        var failure = assertThrows(CommandTimeoutException.class, () -> jcCommander.execute("nap; echo two"));
+        assertEquals(InterruptedException.class, failure.getCause().getCause().getClass());
+        assertFalse(Thread.currentThread().isInterrupted());
+        assertEquals(1, returning.getCalls());
+
+        // A command overrunning the context's deadline is interrupted as well.
+        var context = ExecutionContext.EMPTY.withTimeout(Duration.ofMillis(50));
+        assertThrows(CommandTimeoutException.class, () -> jcCommander.execute("block; echo two", context));
+        assertTrue(returning.isInterrupted());
+        assertFalse(Thread.currentThread().isInterrupted());
+        assertEquals(2, returning.getCalls());
+
+        // Commands are not started after the deadline.
+        assertThrows(CommandTimeoutException.class, () -> jcCommander.execute("echo one", context));
+        assertEquals(2, returning.getCalls());
+
+        // A stage has to complete within the timeout.
+        var future = jcCommander.execute("hang; echo two");
+        var stageFailure = assertThrows(ExecutionException.class, future::get);
+        assertEquals(CommandTimeoutException.class, stageFailure.getCause().getClass());
+        assertEquals(3, returning.getCalls());
+
+        // An interrupt from elsewhere is not cleared along with the watchdog's.
+        Thread.currentThread().interrupt();
+        assertThrows(CommandTimeoutException.class, () -> jcCommander.execute("spin"));
+        assertTrue(Thread.interrupted());
+        assertEquals(4, returning.getCalls());
+    }
+
+    /**
+     * Test of execute method, of class JavaCommander, with commands that return a
+     * stream or an iterator.
+     */
+    @Test
+    public void testExecute_String_stream() throws JavaCommanderException, InterruptedException, ExecutionException {
+        System.out.println("execute_String_stream");
+
+        // Setup JavaCommander instance.
+        var jcCommander = new JavaCommander();
+        var returning = new ReturningAnnotatedClass();
+        jcCommander.registerFromObject(returning);
+
+        // The elements are written to the output rather than returned.
+        var output = new CommandOutput();
+        var results = jcCommander.execute("numbers -to 3; letters", ExecutionContext.EMPTY.withOutput(output)).get();
+        assertEquals(Arrays.asList(null, null), results);
+        var lineSeparator = System.lineSeparator();
+        assertEquals(String.join(lineSeparator, "1", "2", "3", "a", "b", ""), output.toString());
+        assertTrue(returning.isNumbersClosed());
+
+        // With a sink, the elements are forwarded in chunks rather than kept.
+        var flushes = new AtomicInteger();
+        var sink = new StringWriter() {
+
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        var forwardingOutput = new CommandOutput(sink);
+        jcCommander.execute("numbers -to 5000", ExecutionContext.EMPTY.withOutput(forwardingOutput)).get();
+        assertEquals(0, forwardingOutput.length());
+        var lines = sink.toString().split(lineSeparator);
+        assertEquals(5000, lines.length);
+        assertEquals("5000", lines[4999]);
+        assertTrue(flushes.get() > 1);
+    }
+
+    /**
+     * Test of executeAsync method, of class JavaCommander, with an executor
+     * supplied by the caller.
+     */
+    @Test
+    public void testExecuteAsync_String_executor() throws JavaCommanderException {
+        System.out.println("executeAsync_String_executor");
+
+        // Setup JavaCommander instance that invokes commands when told to.
+        var pendingInvocations = new ArrayList<Runnable>();
+        var jcCommander = new JavaCommander(new JcRegistry(), new ArgumentsParser(), new Tokenizer(),
+                pendingInvocations::add);
+        var returning = new ReturningAnnotatedClass();
+        jcCommander.registerFromObject(returning);
+
+        // Test calls.
+        var future = jcCommander.executeAsync("echo hello");
+        assertFalse(future.isDone());
+        assertEquals(0, returning.getCalls());
+        pendingInvocations.forEach(Runnable::run);
+        assertEquals(List.of("hello"), future.join());
+    }
+
     private void assertArguments(Object... arguments) {
         assertArrayEquals(arguments, AnnotatedClass.getLatestArguments());
     }
@@ -1,10 +1,14 @@
 package com.github.agadar.javacommander;
 
+import com.github.agadar.javacommander.annotation.parser.CommandAnnotationParser;
 import com.github.agadar.javacommander.exception.CommandInvocationException;
+import com.github.agadar.javacommander.exception.CommandRejectedException;
+import com.github.agadar.javacommander.exception.JavaCommanderException;
 import com.github.agadar.javacommander.exception.OptionValueParserException;
 import com.github.agadar.javacommander.optionvalueparser.NullOptionValueParser;
 import com.github.agadar.javacommander.testclass.AnnotatedClass;
 import com.github.agadar.javacommander.testclass.DataClass;
+import com.github.agadar.javacommander.testclass.ReturningAnnotatedClass;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -13,6 +17,7 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletionStage;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -178,6 +183,36 @@ public final class JcCommandTest {
         assertFalse(jcCommand.getOptionByName("four").isPresent());
     }
 
+    /**
+     * Test of getOptionByName method, of class JcCommand, ignoring case.
+     */
+    @Test
+    public void testGetOptionByName_ignoreCase() throws OptionValueParserException {
+        System.out.println("getOptionByName_ignoreCase");
+
+        var jcOption1 = new JcCommandOption<>(List.of("StringParam"), "description", Void.class,
+                "defaultValue", null, NullOptionValueParser.class);
+        var jcOption2 = new JcCommandOption<>(List.of("IntParam"), "description", Void.class,
+                "defaultValue", null, NullOptionValueParser.class);
+
+        var jcCommand = new JcCommand(List.of(), List.of("one"), "description", List.of(jcOption1, jcOption2),
+                methodToInvokeOn, objectToInvokeOn, true);
+
+        assertTrue(jcCommand.isIgnoreCase());
+        assertSame(jcOption1, jcCommand.getOptionByName("stringparam").get());
+        assertSame(jcOption1, jcCommand.getOptionByName("STRINGPARAM").get());
+        assertSame(jcOption2, jcCommand.getOptionByName("intParam").get());
+        assertTrue(jcCommand.hasOption("INTPARAM"));
+        assertFalse(jcCommand.getOptionByName("int").isPresent());
+        assertEquals(List.of("IntParam"), jcCommand.suggestOptionNames("intparm", 3));
+
+        // Names differing only in case clash when ignoring case.
+        var jcOption3 = new JcCommandOption<>(List.of("intparam"), "description", Void.class,
+                "defaultValue", null, NullOptionValueParser.class);
+        assertThrows(IllegalArgumentException.class, () -> new JcCommand(List.of(), List.of("one"), "description",
+                List.of(jcOption2, jcOption3), methodToInvokeOn, objectToInvokeOn, true));
+    }
+
     /**
      * Test of numberOfOptions method, of class JcCommand.
      */
@@ -306,4 +341,33 @@ public final class JcCommandTest {
                 methodToInvokeOn, objectToInvokeOn);
         assertTrue(jcCommand.isMyObject(objectToInvokeOn));
     }
+
+    /**
+     * Test of invoke method, of class JcCommand, with a command whose concurrent
+     * invocations are limited by a bulkhead.
+     */
+    @Test
+    public void testInvoke_bulkhead() throws JavaCommanderException {
+        System.out.println("invoke_bulkhead");
+        var returning = new ReturningAnnotatedClass();
+        var export = new CommandAnnotationParser().parseFromObject(returning).stream()
+                .filter(command -> command.getPrimaryName().equals("export")).findFirst().get();
+        var bulkhead = export.getMetadata().getBulkhead().get();
+        assertEquals(1, bulkhead.getMaxConcurrency());
+        assertEquals(0, bulkhead.getQueueCapacity());
+
+        // The running invocation keeps its place until its stage completes.
+        var stage = (CompletionStage<?>) export.invoke();
+        assertEquals(1, bulkhead.getRunning());
+        assertThrows(CommandRejectedException.class, () -> export.invoke());
+        assertEquals(1, bulkhead.getRejected());
+        assertEquals(1, returning.getCalls());
+
+        returning.getRelease().complete(null);
+        assertEquals("exported", stage.toCompletableFuture().join());
+        assertEquals(0, bulkhead.getRunning());
+        assertEquals(0, bulkhead.getWaiting());
+        export.invoke();
+        assertEquals(2, returning.getCalls());
+    }
 }
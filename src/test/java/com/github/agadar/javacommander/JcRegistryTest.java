@@ -1,13 +1,19 @@
 package com.github.agadar.javacommander;
 
+import com.github.agadar.javacommander.example.IntArrayOptionValueParser;
 import com.github.agadar.javacommander.exception.OptionAnnotationException;
 import com.github.agadar.javacommander.exception.OptionValueParserException;
+import com.github.agadar.javacommander.exception.UnknownCommandException;
 import com.github.agadar.javacommander.testclass.AnnotatedClass;
 import com.github.agadar.javacommander.testclass.DataClass;
+import com.github.agadar.javacommander.testclass.NestedAnnotatedClass;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -73,6 +79,198 @@ public class JcRegistryTest {
         assertEquals(0, jcRegistry.getCommands().size());
     }
 
+    /**
+     * Test of unregisterAll method, of class JcRegistry.
+     */
+    @Test
+    public void testUnregisterAll() throws OptionAnnotationException, OptionValueParserException {
+        System.out.println("unregisterAll");
+
+        // Register an object and a class.
+        jcRegistry.registerFromObject(foo);
+        jcRegistry.registerFromClass(AnnotatedClass.class);
+        assertEquals(NONSTATIC_METHODS_IN_FOO + 1, jcRegistry.getCommands().size());
+
+        // Unregistering an unknown object changes nothing.
+        jcRegistry.unregisterAll(List.of(new AnnotatedClass()));
+        assertEquals(NONSTATIC_METHODS_IN_FOO + 1, jcRegistry.getCommands().size());
+
+        // Unregister both.
+        jcRegistry.unregisterAll(List.of(foo, AnnotatedClass.class));
+        assertEquals(0, jcRegistry.getCommands().size());
+        assertFalse(jcRegistry.hasCommand("bar"));
+        assertFalse(jcRegistry.hasCommand("barStatic"));
+    }
+
+    /**
+     * Test of registering an object whose commands replace those of another
+     * object, of class JcRegistry.
+     */
+    @Test
+    public void testRegisterObjectReplacingCommands() throws OptionAnnotationException, OptionValueParserException {
+        System.out.println("registerObjectReplacingCommands");
+        var otherFoo = new AnnotatedClass();
+
+        // The commands of the second object replace those of the first.
+        jcRegistry.registerFromObject(foo);
+        jcRegistry.registerFromObject(otherFoo);
+        assertEquals(NONSTATIC_METHODS_IN_FOO, jcRegistry.getCommands().size());
+        assertTrue(jcRegistry.getCommand("bar").get().isMyObject(otherFoo));
+
+        // So unregistering the first object leaves them be.
+        jcRegistry.unregisterFromObject(foo);
+        assertEquals(NONSTATIC_METHODS_IN_FOO, jcRegistry.getCommands().size());
+        jcRegistry.unregisterFromObject(otherFoo);
+        assertEquals(0, jcRegistry.getCommands().size());
+    }
+
+    /**
+     * Test of freeze method, of class JcRegistry.
+     */
+    @Test
+    public void testFreeze() throws OptionAnnotationException, OptionValueParserException, NoSuchMethodException,
+            UnknownCommandException {
+        System.out.println("freeze");
+        jcRegistry.registerFromObject(foo);
+        var method = AnnotatedClass.class.getMethod("barWithParams", String.class, int.class, boolean.class);
+        var generatedCommands = new ArrayList<JcCommand>();
+
+        for (int i = 0; i < 2_000; i++) {
+            var options = List.<JcCommandOption<?>>of(
+                    new JcCommandOption<>(List.of("-name"), "The name.", String.class, "", null, null),
+                    new JcCommandOption<>(List.of("-count"), "The count.", int.class, "1", null, null),
+                    new JcCommandOption<>(List.of("-force"), "Whether to force.", boolean.class, "false", "true",
+                            null));
+            generatedCommands.add(new JcCommand(List.of("generated"), List.of("command" + i, "alias" + i),
+                    "A generated command.", options, method, foo));
+        }
+        jcRegistry.registerDirectly(generatedCommands);
+        int numberOfCommands = jcRegistry.getCommands().size();
+
+        var report = jcRegistry.freeze();
+        assertTrue(jcRegistry.isFrozen());
+        assertTrue(report.getBytesSaved() > 0, report.toString());
+        assertTrue(report.getAfter().getCount("java.lang.String") < report.getBefore().getCount("java.lang.String"));
+        assertEquals(0, report.getAfter().getCount(AnnotatedClass.class.getName()));
+
+        // The compacted commands are found as before.
+        assertEquals(numberOfCommands, jcRegistry.getCommands().size());
+        var command = jcRegistry.resolveCommand(List.of("generated", "alias42"));
+        assertEquals("generated command42", command.getFullName());
+        assertSame(command, jcRegistry.getCommand("generated command42").get());
+        assertEquals(Integer.valueOf(1), command.getOptionByName("-count").get().getDefaultValue());
+        assertSame(jcRegistry.getCommand("generated command1").get().getOptionByIndex(0).get().getNames(),
+                command.getOptionByIndex(0).get().getNames());
+        assertTrue(command.isMyObject(foo));
+        assertSame(jcRegistry.getCommand("bar").get(), jcRegistry.getCommandByAbbreviation("bar").get());
+
+        // Changes are no longer allowed.
+        assertThrows(IllegalStateException.class, () -> jcRegistry.registerFromObject(new AnnotatedClass()));
+        assertThrows(IllegalStateException.class, () -> jcRegistry.unregisterFromObject(foo));
+        assertThrows(IllegalStateException.class, () -> jcRegistry.unregisterDirectly(command));
+        assertThrows(IllegalStateException.class, () -> jcRegistry.freeze());
+    }
+
+    /**
+     * Test of getFingerprint method, of class JcRegistry.
+     */
+    @Test
+    public void testGetFingerprint()
+            throws OptionAnnotationException, OptionValueParserException, NoSuchMethodException {
+        System.out.println("getFingerprint");
+        jcRegistry.registerFromObject(foo);
+        long fingerprint = jcRegistry.getFingerprint();
+
+        // Registries with the same commands have the same fingerprint.
+        var other = new JcRegistry();
+        other.registerFromObject(new AnnotatedClass());
+        assertEquals(fingerprint, other.getFingerprint());
+        assertEquals(fingerprint, jcRegistry.copy().getFingerprint());
+
+        // Other commands change the fingerprint.
+        other.registerFromObject(new NestedAnnotatedClass());
+        assertNotEquals(fingerprint, other.getFingerprint());
+        assertNotEquals(fingerprint, new JcRegistry(true).getFingerprint());
+
+        // Default values without a value-based string form leave it the same.
+        var withArray = new JcRegistry();
+        withArray.registerDirectly(List.of(newArrayDefaultCommand()));
+        var otherWithArray = new JcRegistry();
+        otherWithArray.registerDirectly(List.of(newArrayDefaultCommand()));
+        assertEquals(withArray.getFingerprint(), otherWithArray.getFingerprint());
+    }
+
+    private JcCommand newArrayDefaultCommand() throws OptionValueParserException, NoSuchMethodException {
+        var option = new JcCommandOption<>(List.of("-values"), "description", int[].class, "1,2", null,
+                IntArrayOptionValueParser.class);
+        return new JcCommand(List.of("sum"), "description", List.of(option), AnnotatedClass.class.getMethod("bar"),
+                foo);
+    }
+
+    /**
+     * Test of copy method, of class JcRegistry.
+     */
+    @Test
+    public void testCopy() throws OptionAnnotationException, OptionValueParserException {
+        System.out.println("copy");
+        var weaklyRegistered = new NestedAnnotatedClass();
+        jcRegistry.registerFromObject(foo);
+        jcRegistry.registerFromObjectWeakly(weaklyRegistered);
+        long version = jcRegistry.getVersion();
+
+        // The copy has the same commands, and a version of its own.
+        var copy = jcRegistry.copy();
+        assertEquals(jcRegistry.getCommands().size(), copy.getCommands().size());
+        assertSame(jcRegistry.getCommand("bar").get(), copy.getCommand("bar").get());
+        assertTrue(copy.getCommand("remote add").get().isMyObject(weaklyRegistered));
+        assertNotEquals(version, copy.getVersion());
+        assertEquals(version, jcRegistry.getVersion());
+
+        // Changing the copy leaves the original unchanged.
+        copy.unregisterFromObject(foo);
+        copy.unregisterFromObject(weaklyRegistered);
+        assertEquals(0, copy.getCommands().size());
+        assertTrue(jcRegistry.hasCommand("bar"));
+        assertTrue(jcRegistry.hasCommand("remote add"));
+        assertEquals(version, jcRegistry.getVersion());
+
+        // A copy of a frozen registry can be changed.
+        jcRegistry.freeze();
+        var unfrozenCopy = jcRegistry.copy();
+        assertFalse(unfrozenCopy.isFrozen());
+        unfrozenCopy.unregisterFromObject(foo);
+        assertFalse(unfrozenCopy.hasCommand("bar"));
+        assertTrue(jcRegistry.hasCommand("bar"));
+    }
+
+    /**
+     * Test of registerFromObjectWeakly method, of class JcRegistry.
+     */
+    @Test
+    public void testRegisterFromObjectWeakly() throws OptionAnnotationException, OptionValueParserException {
+        System.out.println("registerFromObjectWeakly");
+        var weaklyRegistered = new AnnotatedClass();
+
+        // Register and unregister explicitly.
+        jcRegistry.registerFromObjectWeakly(weaklyRegistered);
+        assertEquals(NONSTATIC_METHODS_IN_FOO, jcRegistry.getCommands().size());
+        assertTrue(jcRegistry.getCommand("bar").get().isMyObject(weaklyRegistered));
+        jcRegistry.unregisterFromObject(weaklyRegistered);
+        assertEquals(0, jcRegistry.getCommands().size());
+
+        // Register again and let the object be collected.
+        jcRegistry.registerFromObjectWeakly(weaklyRegistered);
+        weaklyRegistered = null;
+        int expunged = 0;
+        for (int attempt = 0; attempt < 50 && expunged == 0; attempt++) {
+            System.gc();
+            expunged = jcRegistry.expungeCollectedObjects();
+        }
+        assertEquals(1, expunged);
+        assertEquals(0, jcRegistry.getCommands().size());
+        assertFalse(jcRegistry.hasCommand("bar"));
+    }
+
     /**
      * Test of getCommand method, of class JcRegistry.
      */
@@ -159,6 +357,179 @@ public class JcRegistryTest {
         assertFalse(jcRegistry.getCommand("barStatic").isPresent());
     }
 
+    /**
+     * Test of getCommandByAbbreviation method, of class JcRegistry.
+     */
+    @Test
+    public void testGetCommandByAbbreviation() throws OptionAnnotationException, OptionValueParserException {
+        System.out.println("getCommandByAbbreviation");
+        jcRegistry.registerFromObject(foo);
+
+        assertSame(jcRegistry.getCommand("bar").get(), jcRegistry.getCommandByAbbreviation("bar").get());
+        assertSame(jcRegistry.getCommand("barNameless").get(), jcRegistry.getCommandByAbbreviation("barN").get());
+        assertSame(jcRegistry.getCommand("barWithDefaultParams").get(),
+                jcRegistry.getCommandByAbbreviation("barWithD").get());
+        assertSame(jcRegistry.getCommand("BarWithFlags").get(), jcRegistry.getCommandByAbbreviation("BarWithF").get());
+        assertFalse(jcRegistry.getCommandByAbbreviation("barWith").isPresent());
+        assertFalse(jcRegistry.getCommandByAbbreviation("barX").isPresent());
+        assertFalse(jcRegistry.getCommand("barN").isPresent());
+    }
+
+    /**
+     * Test of suggestCommandNames method, of class JcRegistry.
+     */
+    @Test
+    public void testSuggestCommandNames() throws NoSuchMethodException {
+        System.out.println("suggestCommandNames");
+        var delete = new JcCommand(List.of("delete", "deletes", "del"), "description", List.of(),
+                AnnotatedClass.class.getMethod("bar"), foo);
+        var select = new JcCommand(List.of("select"), "description", List.of(), AnnotatedClass.class.getMethod("bar"),
+                foo);
+        jcRegistry.registerDirectly(List.of(delete, select));
+
+        // Each command is suggested once, by its closest name.
+        assertEquals(List.of("delete", "select"), jcRegistry.suggestCommandNames("delet", 2));
+        assertEquals(List.of("delete"), jcRegistry.suggestCommandNames("delet", 1));
+        assertEquals(List.of("deletes"), jcRegistry.suggestCommandNames("deletess", 3));
+        assertEquals(List.of(), jcRegistry.suggestCommandNames("delet", 0));
+    }
+
+    /**
+     * Test of resolveCommand method, of class JcRegistry.
+     */
+    @Test
+    public void testResolveCommand() throws OptionAnnotationException, OptionValueParserException,
+            UnknownCommandException, NoSuchMethodException {
+        System.out.println("resolveCommand");
+        var nested = new NestedAnnotatedClass();
+        jcRegistry.registerFromObject(nested);
+        assertEquals(4, jcRegistry.getCommands().size());
+
+        var remote = jcRegistry.getCommand("remote").get();
+        var remoteAdd = jcRegistry.getCommand("remote add").get();
+        assertEquals("remote add", remoteAdd.getFullName());
+        assertEquals(List.of("remote"), remoteAdd.getParents());
+        assertSame(remoteAdd, jcRegistry.getCommand("remote new").get());
+        assertFalse(jcRegistry.getCommand("add").isPresent());
+        assertFalse(jcRegistry.getCommand("config").isPresent());
+        assertTrue(jcRegistry.hasCommand("config get"));
+
+        assertSame(remote, jcRegistry.resolveCommand(List.of("remote")));
+        assertSame(remote, jcRegistry.resolveCommand(List.of("remote", "origin")));
+        assertSame(remoteAdd, jcRegistry.resolveCommand(List.of("rem", "add", "origin")));
+        assertSame(remoteAdd, jcRegistry.resolveCommand(List.of("rem", "new", "origin")));
+
+        // Only the first name may be abbreviated, so arguments are not taken for sub-commands.
+        assertSame(remote, jcRegistry.resolveCommand(List.of("rem", "a", "origin")));
+
+        // A group of sub-commands that is not a command itself falls back to the command above it.
+        var remoteBranchDelete = new JcCommand(List.of("remote", "branch"), List.of("delete"), "description",
+                List.of(), AnnotatedClass.class.getMethod("bar"), foo);
+        jcRegistry.registerDirectly(List.of(remoteBranchDelete));
+        assertSame(remoteBranchDelete, jcRegistry.resolveCommand(List.of("remote", "branch", "delete")));
+        assertSame(remote, jcRegistry.resolveCommand(List.of("remote", "branch")));
+        assertSame(remote, jcRegistry.resolveCommand(List.of("remote", "branch", "rename")));
+        jcRegistry.unregisterDirectly(remoteBranchDelete);
+        assertFalse(jcRegistry.hasCommand("remote branch delete"));
+        assertThrows(UnknownCommandException.class, () -> jcRegistry.resolveCommand(List.of("config")));
+        assertThrows(UnknownCommandException.class, () -> jcRegistry.resolveCommand(List.of("add")));
+
+        // Unregistering the only sub-command of 'config' removes 'config' as well.
+        jcRegistry.unregisterDirectly(jcRegistry.getCommand("config get").get());
+        assertFalse(jcRegistry.hasCommand("config get"));
+        var unknownCommand = assertThrows(UnknownCommandException.class,
+                () -> jcRegistry.resolveCommand(List.of("config", "get")));
+        assertEquals("config", unknownCommand.getCommandName());
+
+        // Unregistering 'remote' keeps its sub-commands.
+        jcRegistry.unregisterDirectly(remote);
+        assertSame(remoteAdd, jcRegistry.resolveCommand(List.of("remote", "add")));
+        assertThrows(UnknownCommandException.class, () -> jcRegistry.resolveCommand(List.of("remote")));
+
+        jcRegistry.unregisterFromObject(nested);
+        assertEquals(0, jcRegistry.getCommands().size());
+        assertFalse(jcRegistry.hasCommand("remote add"));
+    }
+
+    /**
+     * Test of registerDirectly method, of class JcRegistry, testing a command with
+     * a synonym that names a command with sub-commands.
+     */
+    @Test
+    public void testRegisterDirectly_synonymOfParent() throws OptionAnnotationException, OptionValueParserException,
+            UnknownCommandException, NoSuchMethodException {
+        System.out.println("registerDirectly_synonymOfParent");
+        var nested = new NestedAnnotatedClass();
+        jcRegistry.registerFromObject(nested);
+        var remote = jcRegistry.getCommand("remote").get();
+        var remoteAdd = jcRegistry.getCommand("remote add").get();
+        var remoteRemove = jcRegistry.getCommand("remote remove").get();
+
+        // The command takes over the name, and the sub-commands along with it.
+        var origin = new JcCommand(List.of(), List.of("origin", "remote"), "description", List.of(),
+                AnnotatedClass.class.getMethod("bar"), foo);
+        var originAdd = new JcCommand(List.of("origin"), List.of("add"), "description", List.of(),
+                AnnotatedClass.class.getMethod("bar"), foo);
+        jcRegistry.registerDirectly(List.of(originAdd, origin));
+        assertSame(origin, jcRegistry.resolveCommand(List.of("remote")));
+        assertSame(originAdd, jcRegistry.resolveCommand(List.of("remote", "add")));
+        assertSame(remoteRemove, jcRegistry.getCommand("remote remove").get());
+        assertSame(remoteRemove, jcRegistry.resolveCommand(List.of("origin", "remove")));
+
+        // The sub-commands can still be unregistered, and the command taking over the name as well.
+        jcRegistry.unregisterDirectly(remoteRemove);
+        assertFalse(jcRegistry.hasCommand("remote remove"));
+        jcRegistry.unregisterDirectly(origin);
+        assertSame(originAdd, jcRegistry.resolveCommand(List.of("remote", "add")));
+        jcRegistry.unregisterDirectly(remote);
+        jcRegistry.unregisterDirectly(remoteAdd);
+        jcRegistry.unregisterDirectly(originAdd);
+        jcRegistry.unregisterDirectly(jcRegistry.getCommand("config get").get());
+        assertEquals(0, jcRegistry.getCommands().size());
+        assertThrows(UnknownCommandException.class, () -> jcRegistry.resolveCommand(List.of("remote", "add")));
+    }
+
+    /**
+     * Test of registerDirectly method, of class JcRegistry, testing a command
+     * named after a synonym of a command with sub-commands, which keeps its other
+     * names.
+     */
+    @Test
+    public void testRegisterDirectly_synonymOfParentWithOtherNames()
+            throws UnknownCommandException, NoSuchMethodException {
+        System.out.println("registerDirectly_synonymOfParentWithOtherNames");
+        var method = AnnotatedClass.class.getMethod("bar");
+        var remote = new JcCommand(List.of("remote", "rem"), "description", List.of(), method, foo);
+        var remoteAdd = new JcCommand(List.of("remote"), List.of("add"), "description", List.of(), method, foo);
+        var rem = new JcCommand(List.of("rem"), "description", List.of(), method, foo);
+        jcRegistry.registerDirectly(List.of(remote, remoteAdd, rem));
+
+        // The sub-commands stay with the command that is still known by its primary name.
+        assertSame(rem, jcRegistry.resolveCommand(List.of("rem", "add")));
+        assertSame(remote, jcRegistry.resolveCommand(List.of("remote")));
+        assertSame(remoteAdd, jcRegistry.getCommand("remote add").get());
+        assertSame(remoteAdd, jcRegistry.resolveCommand(List.of("remote", "add")));
+
+        // Unregistering the sub-command leaves no trace of it.
+        jcRegistry.unregisterDirectly(remoteAdd);
+        assertFalse(jcRegistry.hasCommand("remote add"));
+        assertSame(remote, jcRegistry.resolveCommand(List.of("remote", "add")));
+        assertSame(rem, jcRegistry.resolveCommand(List.of("rem", "add")));
+    }
+
+    /**
+     * Test of forEachCommandWithPrefix method, of class JcRegistry.
+     */
+    @Test
+    public void testForEachCommandWithPrefix() throws OptionAnnotationException, OptionValueParserException {
+        System.out.println("forEachCommandWithPrefix");
+        jcRegistry.registerFromObject(foo);
+
+        var names = new ArrayList<String>();
+        jcRegistry.forEachCommandWithPrefix("barWith", (name, command) -> names.add(name.toString()));
+        assertEquals(List.of("barWithBazParam", "barWithDefaultParams", "barWithFlags", "barWithParams"), names);
+    }
+
     /**
      * Test of registerObject method, of class JcRegistry.
      *
@@ -0,0 +1,63 @@
+package com.github.agadar.javacommander.annotation.parser;
+
+import com.github.agadar.javacommander.JcCommand;
+import com.github.agadar.javacommander.exception.OptionAnnotationException;
+import com.github.agadar.javacommander.exception.OptionValueParserException;
+import com.github.agadar.javacommander.testclass.AnnotatedClass;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests com.github.agadar.javacommander.annotation.parser.CommandAnnotationParser.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public class CommandAnnotationParserTest {
+
+    /**
+     * Test of parseFromObject method, of class CommandAnnotationParser, parsing
+     * several objects of the same class.
+     */
+    @Test
+    public void testParseFromObject_sharedMetadata() throws OptionAnnotationException, OptionValueParserException {
+        System.out.println("parseFromObject_sharedMetadata");
+        var parser = new CommandAnnotationParser();
+        var first = new AnnotatedClass();
+        var second = new AnnotatedClass();
+
+        var firstCommands = new ArrayList<JcCommand>(parser.parseFromObject(first));
+        var secondCommands = new ArrayList<JcCommand>(parser.parseFromObject(second));
+        assertEquals(6, firstCommands.size());
+        assertEquals(firstCommands.size(), secondCommands.size());
+
+        for (int i = 0; i < firstCommands.size(); i++) {
+            var firstCommand = firstCommands.get(i);
+            var secondCommand = secondCommands.get(i);
+            assertNotSame(firstCommand, secondCommand);
+            assertSame(firstCommand.getMetadata(), secondCommand.getMetadata());
+            if (firstCommand.numberOfOptions() > 0) {
+                assertSame(firstCommand.getOptionByIndex(0).get(), secondCommand.getOptionByIndex(0).get());
+            }
+            assertTrue(firstCommand.isMyObject(first));
+            assertTrue(secondCommand.isMyObject(second));
+        }
+    }
+
+    /**
+     * Test of parseFromClass method, of class CommandAnnotationParser.
+     */
+    @Test
+    public void testParseFromClass_sharedMetadata() throws OptionAnnotationException, OptionValueParserException {
+        System.out.println("parseFromClass_sharedMetadata");
+        var parser = new CommandAnnotationParser();
+
+        var firstCommands = new ArrayList<JcCommand>(parser.parseFromClass(AnnotatedClass.class));
+        var secondCommands = new ArrayList<JcCommand>(parser.parseFromClass(AnnotatedClass.class));
+        assertEquals(1, firstCommands.size());
+        assertEquals("BarStatic", firstCommands.get(0).getPrimaryName());
+        assertSame(firstCommands.get(0).getMetadata(), secondCommands.get(0).getMetadata());
+    }
+}
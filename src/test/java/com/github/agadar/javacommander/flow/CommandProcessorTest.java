@@ -0,0 +1,103 @@
+package com.github.agadar.javacommander.flow;
+
+import com.github.agadar.javacommander.JavaCommander;
+import com.github.agadar.javacommander.exception.JavaCommanderException;
+import com.github.agadar.javacommander.exception.UnknownCommandException;
+import com.github.agadar.javacommander.testclass.ReturningAnnotatedClass;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests com.github.agadar.javacommander.flow.CommandProcessor.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public class CommandProcessorTest {
+
+    /**
+     * Test of onNext method, of class CommandProcessor, including that no more
+     * lines are executed than fit in the window.
+     */
+    @Test
+    public void testOnNext() throws JavaCommanderException, InterruptedException {
+        System.out.println("onNext");
+        var jcCommander = new JavaCommander();
+        var returning = new ReturningAnnotatedClass();
+        jcCommander.registerFromObject(returning);
+
+        var processor = new CommandProcessor(jcCommander, 2);
+        var subscriber = new CollectingSubscriber();
+        processor.subscribe(subscriber);
+        try (var publisher = new SubmissionPublisher<String>()) {
+            publisher.subscribe(processor);
+            for (var text : List.of("one", "two", "three", "four")) {
+                publisher.submit("echo -text " + text);
+            }
+            publisher.submit("unknown");
+
+            // Nothing was requested, so only the window of lines is executed.
+            awaitTrue(() -> returning.getCalls() == 2);
+            Thread.sleep(100);
+            assertEquals(2, returning.getCalls());
+            assertTrue(subscriber.results.isEmpty());
+
+            // Results are delivered in order as they are requested.
+            subscriber.subscription.request(1);
+            awaitTrue(() -> subscriber.results.size() == 1);
+            subscriber.subscription.request(10);
+            awaitTrue(() -> subscriber.results.size() == 5);
+        }
+        awaitTrue(() -> subscriber.completed);
+
+        assertEquals(List.of("one"), subscriber.results.get(0).getValues());
+        assertEquals(List.of("four"), subscriber.results.get(3).getValues());
+        assertFalse(subscriber.results.get(4).isSuccess());
+        assertEquals(UnknownCommandException.class, subscriber.results.get(4).getFailure().getClass());
+        assertEquals(4, returning.getCalls());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        for (int attempt = 0; attempt < 200 && !condition.getAsBoolean(); attempt++) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    /**
+     * Collects the results it receives, without requesting any by itself.
+     */
+    private static final class CollectingSubscriber implements Flow.Subscriber<ExecutionResult> {
+
+        private final List<ExecutionResult> results = new CopyOnWriteArrayList<>();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ExecutionResult item) {
+            results.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
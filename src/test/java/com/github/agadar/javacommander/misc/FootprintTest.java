@@ -0,0 +1,62 @@
+package com.github.agadar.javacommander.misc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests com.github.agadar.javacommander.misc.Footprint.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public class FootprintTest {
+
+    /**
+     * Test of of method, of class Footprint.
+     */
+    @Test
+    public void testOf() {
+        System.out.println("of");
+
+        var string = Footprint.of("abc", object -> false);
+        assertEquals(2, string.getTotalCount());
+        assertEquals(24, string.getBytes("java.lang.String"));
+        assertEquals(24, string.getBytes("[B"));
+
+        var array = Footprint.of(new int[10], object -> false);
+        assertEquals(56, array.getTotalBytes());
+
+        // A list of three equal strings counts the string once.
+        var shared = "shared";
+        var list = Footprint.of(List.of(shared, shared, shared), object -> false);
+        assertEquals(1, list.getCount("java.lang.String"));
+        assertEquals(32, list.getBytes("[Ljava.lang.Object;"));
+
+        // An ArrayList is assumed to have grown from the default capacity.
+        var arrayList = new ArrayList<Object>(List.of(1));
+        var growable = Footprint.of(arrayList, object -> false);
+        assertEquals(56, growable.getBytes("[Ljava.lang.Object;"));
+        assertEquals(1, growable.getCount("java.lang.Integer"));
+
+        // Excluded objects are neither counted nor followed.
+        var excluded = Footprint.of(new Holder(string), object -> object == string);
+        assertEquals(1, excluded.getTotalCount());
+        assertEquals(16, excluded.getTotalBytes());
+    }
+
+    /**
+     * A class with a single reference field.
+     */
+    private static final class Holder {
+
+        @SuppressWarnings("unused")
+        private final Object held;
+
+        private Holder(Object held) {
+            this.held = held;
+        }
+    }
+}
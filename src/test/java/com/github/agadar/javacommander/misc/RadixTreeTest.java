@@ -0,0 +1,236 @@
+package com.github.agadar.javacommander.misc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests com.github.agadar.javacommander.misc.RadixTree.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public class RadixTreeTest {
+
+    /**
+     * Test of put, get and remove methods, of class RadixTree.
+     */
+    @Test
+    public void testPutGetRemove() {
+        System.out.println("putGetRemove");
+        var tree = new RadixTree<Integer>();
+
+        assertNull(tree.put("statistics", 1));
+        assertNull(tree.put("status", 2));
+        assertNull(tree.put("stat", 3));
+        assertEquals(3, tree.put("stat", 4));
+        assertEquals(3, tree.size());
+
+        assertEquals(1, tree.get("statistics"));
+        assertEquals(2, tree.get("status"));
+        assertEquals(4, tree.get("stat"));
+        assertNull(tree.get("sta"));
+        assertNull(tree.get("statisticsX"));
+        assertNull(tree.get(""));
+
+        assertEquals(4, tree.remove("stat"));
+        assertNull(tree.remove("stat"));
+        assertNull(tree.remove("sta"));
+        assertEquals(2, tree.size());
+        assertEquals(1, tree.get("statistics"));
+        assertEquals(2, tree.get("status"));
+
+        assertEquals(1, tree.remove("statistics"));
+        assertEquals(2, tree.remove("status"));
+        assertTrue(tree.isEmpty());
+    }
+
+    /**
+     * Test of getByUniquePrefix method, of class RadixTree.
+     */
+    @Test
+    public void testGetByUniquePrefix() {
+        System.out.println("getByUniquePrefix");
+        var tree = new RadixTree<String>();
+        var statistics = "statistics";
+        tree.put("statistics", statistics);
+        tree.put("stats", statistics);
+        tree.put("status", "status");
+        tree.put("help", "help");
+
+        assertSame(statistics, tree.getByUniquePrefix("stati"));
+        assertSame(statistics, tree.getByUniquePrefix("stats"));
+        assertEquals("status", tree.getByUniquePrefix("statu"));
+        assertEquals("help", tree.getByUniquePrefix("h"));
+        assertNull(tree.getByUniquePrefix("stat"));
+        assertNull(tree.getByUniquePrefix("x"));
+        assertNull(tree.getByUniquePrefix("helpme"));
+
+        // Synonyms of the same value are not ambiguous.
+        tree.remove("status");
+        assertSame(statistics, tree.getByUniquePrefix("stat"));
+
+        // An exact match wins over longer keys.
+        tree.put("stat", "stat");
+        assertEquals("stat", tree.getByUniquePrefix("stat"));
+    }
+
+    /**
+     * Test of forEachWithPrefix method, of class RadixTree.
+     */
+    @Test
+    public void testForEachWithPrefix() {
+        System.out.println("forEachWithPrefix");
+        var tree = new RadixTree<Integer>();
+        var expected = new TreeMap<String, Integer>();
+        var keys = List.of("romane", "romanus", "romulus", "rubens", "ruber", "rubicon", "rubicundus", "r", "a");
+
+        for (int i = 0; i < keys.size(); i++) {
+            tree.put(keys.get(i), i);
+            expected.put(keys.get(i), i);
+        }
+
+        var visited = new ArrayList<String>();
+        tree.forEach((key, value) -> {
+            visited.add(key.toString());
+            assertEquals(expected.get(key.toString()), value);
+        });
+        assertEquals(new ArrayList<>(expected.keySet()), visited);
+
+        visited.clear();
+        tree.forEachWithPrefix("rub", (key, value) -> visited.add(key.toString()));
+        assertEquals(List.of("rubens", "ruber", "rubicon", "rubicundus"), visited);
+
+        visited.clear();
+        tree.forEachWithPrefix("rom", (key, value) -> visited.add(key.toString()));
+        assertEquals(List.of("romane", "romanus", "romulus"), visited);
+
+        visited.clear();
+        tree.forEachWithPrefix("rox", (key, value) -> visited.add(key.toString()));
+        assertTrue(visited.isEmpty());
+    }
+
+    /**
+     * Test of closestKeys method, of class RadixTree.
+     */
+    @Test
+    public void testClosestKeys() {
+        System.out.println("closestKeys");
+        var tree = new RadixTree<Integer>();
+        var keys = List.of("help", "hello", "shell", "statistics", "status", "exit", "quit");
+        for (int i = 0; i < keys.size(); i++) {
+            tree.put(keys.get(i), i);
+        }
+
+        assertEquals(List.of("hello", "help"), tree.closestKeys("helo", 1, 3));
+        assertEquals(List.of("hello"), tree.closestKeys("helo", 1, 1));
+        assertEquals(List.of("status"), tree.closestKeys("stauts", 2, 3));
+        assertEquals(List.of("exit"), tree.closestKeys("exti", 2, 3));
+        assertEquals(List.of("help"), tree.closestKeys("help", 0, 3));
+        assertTrue(tree.closestKeys("xyzzy", 2, 3).isEmpty());
+    }
+
+    /**
+     * Test of closestKeys method, of class RadixTree, against a linear scan over
+     * many keys.
+     */
+    @Test
+    public void testClosestKeysManyKeys() {
+        System.out.println("closestKeysManyKeys");
+        var tree = new RadixTree<Integer>();
+        var keys = new TreeMap<String, Integer>();
+        for (int i = 0; i < 5_000; i++) {
+            String key = Integer.toString(i * 7919 % 100_000, 36);
+            keys.put(key, i);
+            tree.put(key, i);
+        }
+        for (String query : List.of("abc", "1x2", "zz", "4f0")) {
+            var expected = keys.keySet().stream().filter(key -> levenshtein(query, key) <= 1).sorted(
+                    (a, b) -> levenshtein(query, a) != levenshtein(query, b)
+                            ? levenshtein(query, a) - levenshtein(query, b)
+                            : a.compareTo(b))
+                    .collect(Collectors.toList());
+            assertEquals(expected, tree.closestKeys(query, 1, Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Test of the RadixTree when ignoring case.
+     */
+    @Test
+    public void testIgnoreCase() {
+        System.out.println("ignoreCase");
+        var tree = new RadixTree<Integer>(true);
+        tree.put("StringParam", 1);
+        tree.put("statistics", 2);
+
+        assertEquals(1, tree.get("stringparam"));
+        assertEquals(1, tree.get("STRINGPARAM"));
+        assertEquals(1, tree.put("stringParam", 3));
+        assertEquals(2, tree.size());
+        assertEquals(3, tree.getByUniquePrefix("STR"));
+        assertEquals(2, tree.getByUniquePrefix("StaT"));
+        assertNull(tree.getByUniquePrefix("S"));
+        assertEquals(List.of("statistics"), tree.closestKeys("STATISTIX", 2, 3));
+
+        var visited = new ArrayList<String>();
+        tree.forEachWithPrefix("ST", (key, value) -> visited.add(key.toString()));
+        assertEquals(List.of("statistics", "stringparam"), visited);
+
+        assertEquals(3, tree.remove("STRINGparam"));
+        assertNull(tree.get("stringparam"));
+        assertEquals(1, tree.size());
+
+        // Case-sensitive trees keep casings apart.
+        var caseSensitiveTree = new RadixTree<Integer>();
+        caseSensitiveTree.put("Bar", 1);
+        assertNull(caseSensitiveTree.get("bar"));
+    }
+
+    /**
+     * Test of the RadixTree against a TreeMap with many keys.
+     */
+    @Test
+    public void testManyKeys() {
+        System.out.println("manyKeys");
+        var tree = new RadixTree<Integer>();
+        var expected = new TreeMap<String, Integer>();
+
+        for (int i = 0; i < 10_000; i++) {
+            String key = "cmd" + Integer.toString(i * 7919 % 10_000, 36);
+            tree.put(key, i);
+            expected.put(key, i);
+        }
+        assertEquals(expected.size(), tree.size());
+        expected.forEach((key, value) -> assertEquals(value, tree.get(key)));
+
+        for (int i = 0; i < 10_000; i += 2) {
+            String key = "cmd" + Integer.toString(i * 7919 % 10_000, 36);
+            assertEquals(expected.remove(key), tree.remove(key));
+        }
+        assertEquals(expected.size(), tree.size());
+
+        var visited = new ArrayList<String>();
+        tree.forEach((key, value) -> visited.add(key.toString()));
+        assertEquals(new ArrayList<>(expected.keySet()), visited);
+    }
+
+    private static int levenshtein(String a, String b) {
+        var distances = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    distances[i][j] = i + j;
+                } else {
+                    int substitution = distances[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                    distances[i][j] = Math.min(substitution, Math.min(distances[i - 1][j], distances[i][j - 1]) + 1);
+                }
+            }
+        }
+        return distances[a.length()][b.length()];
+    }
+}
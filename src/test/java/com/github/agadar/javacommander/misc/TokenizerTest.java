@@ -0,0 +1,34 @@
+package com.github.agadar.javacommander.misc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests com.github.agadar.javacommander.misc.Tokenizer.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public class TokenizerTest {
+
+    /**
+     * Test of tokenizeGroups method, of class Tokenizer.
+     */
+    @Test
+    public void testTokenizeGroups() {
+        System.out.println("tokenizeGroups");
+        var tokenizer = new Tokenizer();
+
+        assertEquals(List.of(List.of(List.of("a", "x"), List.of("b")), List.of(List.of("c"))),
+                tokenizer.tokenizeGroups("a x & b; c"));
+        assertEquals(List.of(List.of(List.of("a", "x & y"))), tokenizer.tokenizeGroups("a 'x & y'"));
+        assertEquals(List.of(List.of(List.of("a", "x&y"))), tokenizer.tokenizeGroups("a x\\&y"));
+        assertEquals(List.of(List.of(List.of("a")), List.of(List.of("b"))),
+                tokenizer.tokenizeGroups(" & a &;; & b &"));
+        assertEquals(List.of(), tokenizer.tokenizeGroups(null));
+        assertEquals(List.of(List.of("a", "x"), List.of("b"), List.of("c")),
+                List.copyOf(tokenizer.tokenize("a x & b; c")));
+    }
+}
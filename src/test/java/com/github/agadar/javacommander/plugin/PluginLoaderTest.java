@@ -0,0 +1,102 @@
+package com.github.agadar.javacommander.plugin;
+
+import com.github.agadar.javacommander.JavaCommander;
+import com.github.agadar.javacommander.annotation.Command;
+import com.github.agadar.javacommander.exception.JavaCommanderException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests com.github.agadar.javacommander.plugin.PluginLoader.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public class PluginLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Test of start method, of class PluginLoader, including the reloading and
+     * unloading of jars that are replaced or removed afterwards.
+     */
+    @Test
+    public void testStart() throws IOException, InterruptedException, JavaCommanderException {
+        System.out.println("start");
+        var pluginDirectory = Files.createDirectory(tempDir.resolve("plugins"));
+        var jar = pluginDirectory.resolve("greeter.jar");
+        buildPlugin("greet", tempDir.resolve("greeter-1.jar"));
+        buildPlugin("welcome", tempDir.resolve("greeter-2.jar"));
+        Files.copy(tempDir.resolve("greeter-1.jar"), jar);
+
+        var jcCommander = new JavaCommander();
+        try (var pluginLoader = new PluginLoader(jcCommander, pluginDirectory)) {
+
+            // Jars already in the directory are loaded right away.
+            pluginLoader.start();
+            assertEquals(Set.of(jar), pluginLoader.getLoadedPlugins());
+            var greeterClass = jcCommander.getCommand("greet").get().getMetadata().getMethodToInvoke()
+                    .getDeclaringClass();
+            assertNotSame(getClass().getClassLoader(), greeterClass.getClassLoader());
+            jcCommander.execute("greet");
+
+            // A replaced jar's commands replace the old ones.
+            Files.copy(tempDir.resolve("greeter-2.jar"), jar, StandardCopyOption.REPLACE_EXISTING);
+            awaitTrue(() -> jcCommander.getCommand("welcome").isPresent());
+            assertFalse(jcCommander.getCommand("greet").isPresent());
+            jcCommander.execute("welcome");
+
+            // A removed jar's commands are unregistered.
+            Files.delete(jar);
+            awaitTrue(() -> pluginLoader.getLoadedPlugins().isEmpty());
+            assertEquals(0, jcCommander.getCommands().size());
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        for (int attempt = 0; attempt < 200 && !condition.getAsBoolean(); attempt++) {
+            Thread.sleep(50);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    /**
+     * Compiles a class with a single command of the given name, and packs it into
+     * a jar.
+     */
+    private void buildPlugin(String commandName, Path jar) throws IOException {
+        var sourceDirectory = Files.createTempDirectory(tempDir, "source");
+        var source = sourceDirectory.resolve("Greeter.java");
+        Files.writeString(source, "package plugin;\n"
+                + "public class Greeter {\n"
+                + "    @com.github.agadar.javacommander.annotation.Command(names = \"" + commandName + "\")\n"
+                + "    public void greet() {\n"
+                + "    }\n"
+                + "}\n");
+        var classPath = Path.of(Command.class.getProtectionDomain().getCodeSource().getLocation().getPath());
+        int result = ToolProvider.getSystemJavaCompiler().run(null, null, null, "-classpath", classPath.toString(),
+                "-d", sourceDirectory.toString(), source.toString());
+        assertEquals(0, result);
+
+        try (var jarOutput = new JarOutputStream(Files.newOutputStream(jar))) {
+            jarOutput.putNextEntry(new JarEntry("plugin/Greeter.class"));
+            jarOutput.write(Files.readAllBytes(sourceDirectory.resolve("plugin/Greeter.class")));
+            jarOutput.closeEntry();
+        }
+    }
+}
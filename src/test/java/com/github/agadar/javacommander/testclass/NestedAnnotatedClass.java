@@ -0,0 +1,44 @@
+package com.github.agadar.javacommander.testclass;
+
+import com.github.agadar.javacommander.annotation.Command;
+import com.github.agadar.javacommander.annotation.Option;
+
+import lombok.Getter;
+
+/**
+ * Test class containing annotated methods for commands with sub-commands.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public class NestedAnnotatedClass {
+
+    /**
+     * The name of the last method called, followed by its arguments.
+     */
+    @Getter
+    private Object[] latestCall = new Object[0];
+
+    @Command(names = "remote", description = "remoteDescription", options = {
+            @Option(names = "-verbose", flagValue = "true", defaultValue = "false") })
+    public void remote(boolean verbose) {
+        latestCall = new Object[] { "remote", verbose };
+    }
+
+    @Command(parents = "remote", names = { "add", "new" }, description = "remoteAddDescription", options = {
+            @Option(names = "-name"), @Option(names = "-url") })
+    public void remoteAdd(String name, String url) {
+        latestCall = new Object[] { "remoteAdd", name, url };
+    }
+
+    @Command(parents = "remote", names = "remove", description = "remoteRemoveDescription", options = {
+            @Option(names = "-name") })
+    public void remoteRemove(String name) {
+        latestCall = new Object[] { "remoteRemove", name };
+    }
+
+    @Command(parents = "config", names = "get", description = "configGetDescription", options = {
+            @Option(names = "-key") })
+    public void configGet(String key) {
+        latestCall = new Object[] { "configGet", key };
+    }
+}
@@ -0,0 +1,232 @@
+package com.github.agadar.javacommander.testclass;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.github.agadar.javacommander.CommandOutput;
+import com.github.agadar.javacommander.annotation.Command;
+import com.github.agadar.javacommander.annotation.Option;
+
+import lombok.Getter;
+
+/**
+ * Test class containing annotated methods that return values.
+ *
+ * @author Agadar (https://github.com/Agadar/)
+ */
+public class ReturningAnnotatedClass {
+
+    /**
+     * The thread that last called any of this object's methods.
+     */
+    @Getter
+    private volatile Thread latestThread;
+
+    /**
+     * The number of calls to any of this object's methods.
+     */
+    @Getter
+    private volatile int calls;
+
+    /**
+     * Completes the stages returned by {@link #later(String)} once completed.
+     */
+    @Getter
+    private final CompletableFuture<Void> release = new CompletableFuture<>();
+
+    /**
+     * Whether a call to {@link #block()} was interrupted.
+     */
+    @Getter
+    private volatile boolean interrupted;
+
+    /**
+     * Whether the stream returned by {@link #numbers(int)} was closed.
+     */
+    @Getter
+    private volatile boolean numbersClosed;
+
+    /**
+     * Lets calls to {@link #meet()} pass only once two of them are waiting at once.
+     */
+    private final CyclicBarrier meeting = new CyclicBarrier(2);
+
+    /**
+     * Counted down once a call to {@link #block()} is blocked.
+     */
+    private final CountDownLatch blocked = new CountDownLatch(1);
+
+    /**
+     * Counted down once a call to {@link #failBlocked()} is about to fail.
+     */
+    private final CountDownLatch failed = new CountDownLatch(1);
+
+    /**
+     * The keys and values passed to {@link #record(String, String)}, in the order
+     * it was called in.
+     */
+    @Getter
+    private final List<String> records = Collections.synchronizedList(new ArrayList<>());
+
+    @Command(names = "echo", description = "echoDescription", options = { @Option(names = "-text") })
+    public String echo(String text) {
+        called();
+        return text;
+    }
+
+    @Command(names = "later", description = "laterDescription", options = { @Option(names = "-text") })
+    public CompletionStage<String> later(String text) {
+        called();
+        return release.thenApply(ignored -> text);
+    }
+
+    @Command(names = "greet", description = "greetDescription", options = { @Option(names = "-name") })
+    public void greet(CommandOutput output, String name) {
+        called();
+        output.print("Hello, ").print(name).println("!");
+    }
+
+    @Command(names = "fail", description = "failDescription")
+    public void fail() {
+        called();
+        throw new IllegalStateException("failed");
+    }
+
+    @Command(names = "meet", description = "meetDescription")
+    public String meet() throws Exception {
+        called();
+        meeting.await(10, TimeUnit.SECONDS);
+        return "met";
+    }
+
+    @Command(names = "block", description = "blockDescription")
+    public void block() {
+        called();
+        blocked.countDown();
+        try {
+            new CountDownLatch(1).await();
+        } catch (InterruptedException ex) {
+            interrupted = true;
+        }
+    }
+
+    @Command(names = "await", description = "awaitDescription")
+    public CompletionStage<String> await() {
+        called();
+        blocked.countDown();
+
+        // Return the stage only after a call to failBlocked() failed, ignoring interrupts.
+        boolean interrupted = false;
+        long end = Long.MAX_VALUE;
+        while (System.nanoTime() < end) {
+            try {
+                if (end == Long.MAX_VALUE) {
+                    failed.await();
+                    end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+                } else {
+                    Thread.sleep(10);
+                }
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return release.thenApply(ignored -> "awaited").minimalCompletionStage();
+    }
+
+    @Command(names = "failBlocked", description = "failBlockedDescription")
+    public void failBlocked() throws InterruptedException {
+        called();
+        blocked.await();
+        failed.countDown();
+        throw new IllegalStateException("failed");
+    }
+
+    @Command(names = "meetUsers", description = "meetUsersDescription", reads = "users")
+    public String meetUsers() throws Exception {
+        return meet();
+    }
+
+    @Command(names = "storeUser", description = "storeUserDescription", writes = "users")
+    public int storeUser() {
+        called();
+        return calls;
+    }
+
+    @Command(names = "countUsers", description = "countUsersDescription", reads = "users")
+    public int countUsers() {
+        called();
+        return calls;
+    }
+
+    @Command(names = "record", description = "recordDescription", options = {
+            @Option(names = "-key", partitionKey = true), @Option(names = "-value") })
+    public CompletionStage<String> record(String key, String value) {
+        called();
+        records.add(key + " " + value);
+        return value.startsWith("later") ? release.thenApply(ignored -> value)
+                : CompletableFuture.completedFuture(value);
+    }
+
+    @Command(names = "export", description = "exportDescription", maxConcurrency = 1, queueCapacity = 0)
+    public CompletionStage<String> export() {
+        called();
+        return release.thenApply(ignored -> "exported");
+    }
+
+    @Command(names = "nap", description = "napDescription", timeoutMillis = 50)
+    public void nap() throws InterruptedException {
+        called();
+        Thread.sleep(10_000);
+    }
+
+    @Command(names = "spin", description = "spinDescription", timeoutMillis = 50)
+    public void spin() {
+        called();
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(150);
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Command(names = "hang", description = "hangDescription", timeoutMillis = 50)
+    public CompletionStage<String> hang() {
+        called();
+        return new CompletableFuture<>();
+    }
+
+    @Command(names = "transfer", description = "transferDescription", options = { @Option(names = "-from"),
+            @Option(names = "-to"), @Option(names = "-amount"), @Option(names = "-express", defaultValue = "false") })
+    public String transfer(String from, String to, long amount, boolean express) {
+        called();
+        return from + "->" + to + ":" + amount + (express ? "!" : "");
+    }
+
+    @Command(names = "numbers", description = "numbersDescription", options = { @Option(names = "-to") })
+    public Stream<Integer> numbers(int to) {
+        called();
+        return IntStream.rangeClosed(1, to).boxed().onClose(() -> numbersClosed = true);
+    }
+
+    @Command(names = "letters", description = "lettersDescription")
+    public Iterator<String> letters() {
+        called();
+        return List.of("a", "b").iterator();
+    }
+
+    private synchronized void called() {
+        latestThread = Thread.currentThread();
+        calls++;
+    }
+}